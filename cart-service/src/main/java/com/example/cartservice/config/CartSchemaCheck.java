@@ -0,0 +1,37 @@
+package com.example.cartservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Lệnh upsert của giỏ hàng chỉ cộng dồn số lượng khi bảng cart_items có ràng buộc unique (cart_id, product_id).
+// ddl-auto không tạo được ràng buộc nếu bảng đã có dòng trùng và cũng không báo lỗi, nên kiểm tra lại khi khởi động
+// (sau khi Hibernate cập nhật schema) và dừng service nếu thiếu.
+@Component
+@DependsOn("entityManagerFactory")
+public class CartSchemaCheck implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartSchemaCheck.class);
+    private static final String UNIQUE_KEY = "uk_cart_items_cart_product";
+    private final JdbcTemplate jdbcTemplate;
+
+    public CartSchemaCheck(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Integer columns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'cart_items' AND index_name = ? AND non_unique = 0",
+                Integer.class, UNIQUE_KEY);
+        if (columns == null || columns != 2) {
+            throw new IllegalStateException("Bảng cart_items thiếu ràng buộc unique " + UNIQUE_KEY
+                    + " (cart_id, product_id); chạy db-init/migrate-cart-items-unique.sql trước khi khởi động Cart Service");
+        }
+        logger.debug("Đã kiểm tra ràng buộc {} của bảng cart_items", UNIQUE_KEY);
+    }
+}
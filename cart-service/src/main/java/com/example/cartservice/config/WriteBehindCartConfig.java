@@ -0,0 +1,47 @@
+package com.example.cartservice.config;
+
+import com.example.cartservice.repository.CartItemRepository;
+import com.example.cartservice.store.CartWriteAheadLog;
+import com.example.cartservice.store.JdbcCartPersistence;
+import com.example.cartservice.store.WriteBehindCartStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// Chỉ được nạp khi cart.storage.mode=write-behind
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "write-behind")
+public class WriteBehindCartConfig {
+
+    @Bean(destroyMethod = "close")
+    public CartWriteAheadLog cartWriteAheadLog(
+            @Value("${cart.write-behind.wal-dir:cart-wal}") String walDir,
+            @Value("${cart.write-behind.fsync:true}") boolean fsync) throws IOException {
+        return new CartWriteAheadLog(Paths.get(walDir), fsync);
+    }
+
+    // WAL còn sót lại từ lần chạy trước được phát lại vào database trước khi service nhận request
+    @Bean
+    public WriteBehindCartStore writeBehindCartStore(
+            CartWriteAheadLog cartWriteAheadLog,
+            CartItemRepository cartItemRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${cart.write-behind.shards:64}") int shards,
+            @Value("${cart.write-behind.idle-evict-ms:600000}") long idleEvictMs) {
+        JdbcCartPersistence persistence = new JdbcCartPersistence(cartItemRepository, jdbcTemplate,
+                new TransactionTemplate(transactionManager));
+        WriteBehindCartStore store = new WriteBehindCartStore(cartWriteAheadLog, persistence, shards, idleEvictMs);
+        store.recover();
+        return store;
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.cartservice.controller;
 
+import com.example.cartservice.dto.CartView;
 import com.example.cartservice.entity.CartItem;
 import com.example.cartservice.service.CartService;
+import com.example.cartservice.service.CartViewService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +16,7 @@ import java.util.List;
 public class CartController {
 
     private final CartService cartService;
+    private final CartViewService cartViewService;
 
     @PostMapping("/{username}/items")
     public ResponseEntity<Void> addProductToCart(
@@ -40,12 +43,28 @@ public class CartController {
         return ResponseEntity.ok().build();
     }
 
+    // Xóa nhiều sản phẩm: DELETE /api/cart/{username}/items?productIds=1,2,3; không có productIds thì xóa toàn bộ giỏ hàng.
+    // Sản phẩm không có trong giỏ hàng được bỏ qua nên gọi lại nhiều lần vẫn an toàn.
+    @DeleteMapping("/{username}/items")
+    public ResponseEntity<Void> removeProductsFromCart(
+            @PathVariable String username,
+            @RequestParam(required = false) List<Long> productIds) {
+        cartService.removeProductsFromCart(username, productIds);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/{username}/items")
     public ResponseEntity<List<CartItem>> getCartItems(@PathVariable String username) {
         List<CartItem> items = cartService.getCartItems(username);
         return ResponseEntity.ok(items);
     }
 
+    // Giỏ hàng kèm tên, giá, tình trạng tồn kho và thành tiền; thông tin sản phẩm lấy bằng một lần gọi product-service
+    @GetMapping("/{username}/view")
+    public ResponseEntity<CartView> getCartView(@PathVariable String username) {
+        return ResponseEntity.ok(cartViewService.getCartView(username));
+    }
+
     // DTO để nhận thông tin từ request
     public static class CartItemRequest {
         private Long productId;
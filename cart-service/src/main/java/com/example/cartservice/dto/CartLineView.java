@@ -0,0 +1,17 @@
+package com.example.cartservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Một dòng giỏ hàng kèm thông tin sản phẩm; found = false khi sản phẩm không còn trong product-service
+@Getter
+@Setter
+public class CartLineView {
+    private Long productId;
+    private int quantity;
+    private String name;
+    private double price;
+    private boolean found;
+    private boolean inStock;
+    private double subtotal;
+}
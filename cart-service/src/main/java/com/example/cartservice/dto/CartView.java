@@ -0,0 +1,18 @@
+package com.example.cartservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Giỏ hàng đã ghép thông tin sản phẩm, dùng cho GET /api/cart/{username}/view
+@Getter
+@Setter
+public class CartView {
+    private String username;
+    private List<CartLineView> items;
+    private int totalQuantity;
+    private double totalPrice;
+    // true khi mọi sản phẩm đều còn tồn tại và đủ hàng
+    private boolean allInStock;
+}
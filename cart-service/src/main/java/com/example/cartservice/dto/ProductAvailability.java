@@ -0,0 +1,16 @@
+package com.example.cartservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Kết quả của POST /api/products/batch (product-service) cho một sản phẩm
+@Getter
+@Setter
+public class ProductAvailability {
+    private Long productId;
+    private String name;
+    private double price;
+    private int requestedQuantity;
+    private boolean found;
+    private boolean available;
+}
@@ -2,12 +2,54 @@ package com.example.cartservice.repository;
 
 import com.example.cartservice.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
+// Các thao tác ghi đều là một câu lệnh duy nhất, dựa trên ràng buộc unique (cart_id, product_id)
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
-    Optional<CartItem> findByCartIdAndProductId(Long cartId, Long productId);
     List<CartItem> findByCartId(Long cartId);
-    void deleteByCartIdAndProductId(Long cartId, Long productId);
-}
\ No newline at end of file
+
+    // Lấy các sản phẩm trong giỏ hàng theo username trong một truy vấn
+    @Query("select i from CartItem i, Cart c where c.id = i.cartId and c.username = :username order by i.id")
+    List<CartItem> findByUsername(@Param("username") String username);
+
+    // Thêm sản phẩm hoặc cộng dồn số lượng; trả về 0 nếu người dùng chưa có giỏ hàng
+    @Modifying
+    @Query(value = "INSERT INTO cart_items (cart_id, product_id, quantity, created_at) " +
+            "SELECT c.id, :productId, :quantity, NOW() FROM carts c WHERE c.username = :username " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + :quantity", nativeQuery = true)
+    int upsertQuantity(@Param("username") String username,
+                       @Param("productId") Long productId,
+                       @Param("quantity") int quantity);
+
+    // Đặt số lượng; trả về 0 nếu sản phẩm không có trong giỏ hàng
+    @Modifying
+    @Query(value = "UPDATE cart_items ci JOIN carts c ON c.id = ci.cart_id SET ci.quantity = :quantity " +
+            "WHERE c.username = :username AND ci.product_id = :productId", nativeQuery = true)
+    int updateQuantity(@Param("username") String username,
+                       @Param("productId") Long productId,
+                       @Param("quantity") int quantity);
+
+    // Xóa trực tiếp, không nạp entity trước; trả về số dòng đã xóa
+    @Modifying
+    @Query(value = "DELETE ci FROM cart_items ci JOIN carts c ON c.id = ci.cart_id " +
+            "WHERE c.username = :username AND ci.product_id = :productId", nativeQuery = true)
+    int deleteByUsernameAndProductId(@Param("username") String username, @Param("productId") Long productId);
+
+    // Xóa nhiều sản phẩm trong một câu lệnh; sản phẩm không có trong giỏ hàng được bỏ qua
+    @Modifying
+    @Query(value = "DELETE ci FROM cart_items ci JOIN carts c ON c.id = ci.cart_id " +
+            "WHERE c.username = :username AND ci.product_id IN (:productIds)", nativeQuery = true)
+    int deleteByUsernameAndProductIdIn(@Param("username") String username,
+                                       @Param("productIds") Collection<Long> productIds);
+
+    // Xóa toàn bộ giỏ hàng
+    @Modifying
+    @Query(value = "DELETE ci FROM cart_items ci JOIN carts c ON c.id = ci.cart_id " +
+            "WHERE c.username = :username", nativeQuery = true)
+    int deleteAllByUsername(@Param("username") String username);
+}
@@ -2,9 +2,18 @@ package com.example.cartservice.repository;
 
 import com.example.cartservice.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUsername(String username);
-}
\ No newline at end of file
+
+    // Tạo giỏ hàng nếu chưa có (username là unique), an toàn khi nhiều request chạy đồng thời
+    @Modifying
+    @Query(value = "INSERT INTO carts (username, created_at) VALUES (:username, NOW()) " +
+            "ON DUPLICATE KEY UPDATE id = id", nativeQuery = true)
+    int insertIfAbsent(@Param("username") String username);
+}
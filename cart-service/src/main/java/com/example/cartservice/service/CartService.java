@@ -14,6 +14,9 @@ public interface CartService {
     // Xóa sản phẩm khỏi giỏ hàng
     void removeProductFromCart(String username, Long productId);
 
+    // Xóa nhiều sản phẩm khỏi giỏ hàng (productIds null = xóa toàn bộ), trả về số sản phẩm đã xóa
+    int removeProductsFromCart(String username, List<Long> productIds);
+
     // Lấy danh sách sản phẩm trong giỏ hàng
     List<CartItem> getCartItems(String username);
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.example.cartservice.service;
+
+import com.example.cartservice.dto.CartView;
+
+public interface CartViewService {
+    // Lấy giỏ hàng kèm tên, giá, tình trạng tồn kho và thành tiền của từng sản phẩm
+    CartView getCartView(String username);
+}
@@ -1,6 +1,5 @@
 package com.example.cartservice.service.impl;
 
-import com.example.cartservice.entity.Cart;
 import com.example.cartservice.entity.CartItem;
 import com.example.cartservice.repository.CartItemRepository;
 import com.example.cartservice.repository.CartRepository;
@@ -8,15 +7,16 @@ import com.example.cartservice.service.CartService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
+// Chế độ mặc định: mọi thao tác ghi thẳng vào MySQL
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "database", matchIfMissing = true)
 public class CartServiceImpl implements CartService {
 
     private static final Logger logger = LoggerFactory.getLogger(CartServiceImpl.class);
@@ -33,25 +33,12 @@ public class CartServiceImpl implements CartService {
                 throw new IllegalArgumentException("Số lượng phải lớn hơn 0");
             }
 
-            // Tìm hoặc tạo giỏ hàng
-            Cart cart = getOrCreateCart(username);
-
-            // Kiểm tra xem sản phẩm đã có trong giỏ hàng chưa
-            Optional<CartItem> existingItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId);
-            if (existingItem.isPresent()) {
-                CartItem cartItem = existingItem.get();
-                cartItem.setQuantity(cartItem.getQuantity() + quantity);
-                cartItemRepository.save(cartItem);
-                logger.info("Cập nhật số lượng sản phẩm {} trong giỏ hàng của {}", productId, username);
-            } else {
-                CartItem cartItem = new CartItem();
-                cartItem.setCartId(cart.getId());
-                cartItem.setProductId(productId);
-                cartItem.setQuantity(quantity);
-                cartItem.setCreatedAt(LocalDateTime.now());
-                cartItemRepository.save(cartItem);
-                logger.info("Thêm sản phẩm {} vào giỏ hàng của {}", productId, username);
+            // Thêm mới hoặc cộng dồn số lượng trong một câu lệnh; chỉ lần đầu tiên mới cần tạo giỏ hàng
+            if (cartItemRepository.upsertQuantity(username, productId, quantity) == 0) {
+                cartRepository.insertIfAbsent(username);
+                cartItemRepository.upsertQuantity(username, productId, quantity);
             }
+            logger.info("Thêm sản phẩm {} (số lượng {}) vào giỏ hàng của {}", productId, quantity, username);
         } catch (IllegalArgumentException e) {
             logger.error("Lỗi khi thêm sản phẩm vào giỏ hàng: {}", e.getMessage(), e);
             throw e;
@@ -71,17 +58,11 @@ public class CartServiceImpl implements CartService {
                 throw new IllegalArgumentException("Số lượng phải lớn hơn 0");
             }
 
-            Cart cart = getOrCreateCart(username);
-            Optional<CartItem> cartItemOptional = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId);
-            if (cartItemOptional.isPresent()) {
-                CartItem cartItem = cartItemOptional.get();
-                cartItem.setQuantity(quantity);
-                cartItemRepository.save(cartItem);
-                logger.info("Cập nhật số lượng sản phẩm {} thành {} trong giỏ hàng của {}", productId, quantity, username);
-            } else {
+            if (cartItemRepository.updateQuantity(username, productId, quantity) == 0) {
                 logger.warn("Sản phẩm {} không tồn tại trong giỏ hàng của {}", productId, username);
                 throw new IllegalArgumentException("Sản phẩm không tồn tại trong giỏ hàng");
             }
+            logger.info("Cập nhật số lượng sản phẩm {} thành {} trong giỏ hàng của {}", productId, quantity, username);
         } catch (IllegalArgumentException e) {
             logger.error("Lỗi khi cập nhật số lượng sản phẩm: {}", e.getMessage(), e);
             throw e;
@@ -96,21 +77,11 @@ public class CartServiceImpl implements CartService {
     public void removeProductFromCart(String username, Long productId) {
         logger.debug("Xóa sản phẩm {} khỏi giỏ hàng của người dùng: {}", productId, username);
         try {
-            Optional<Cart> cartOptional = cartRepository.findByUsername(username);
-            if (cartOptional.isPresent()) {
-                Cart cart = cartOptional.get();
-                Optional<CartItem> cartItemOptional = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId);
-                if (cartItemOptional.isPresent()) {
-                    cartItemRepository.deleteByCartIdAndProductId(cart.getId(), productId);
-                    logger.info("Xóa sản phẩm {} khỏi giỏ hàng của {}", productId, username);
-                } else {
-                    logger.warn("Sản phẩm {} không tồn tại trong giỏ hàng của {}", productId, username);
-                    throw new IllegalArgumentException("Sản phẩm không tồn tại trong giỏ hàng");
-                }
-            } else {
-                logger.warn("Không tìm thấy giỏ hàng cho người dùng: {}", username);
-                throw new IllegalArgumentException("Không tìm thấy giỏ hàng");
+            if (cartItemRepository.deleteByUsernameAndProductId(username, productId) == 0) {
+                logger.warn("Sản phẩm {} không tồn tại trong giỏ hàng của {}", productId, username);
+                throw new IllegalArgumentException("Sản phẩm không tồn tại trong giỏ hàng");
             }
+            logger.info("Xóa sản phẩm {} khỏi giỏ hàng của {}", productId, username);
         } catch (IllegalArgumentException e) {
             logger.error("Lỗi khi xóa sản phẩm khỏi giỏ hàng: {}", e.getMessage(), e);
             throw e;
@@ -121,31 +92,34 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    public List<CartItem> getCartItems(String username) {
-        logger.debug("Lấy danh sách sản phẩm trong giỏ hàng của người dùng: {}", username);
+    @Transactional
+    public int removeProductsFromCart(String username, List<Long> productIds) {
+        logger.debug("Xóa sản phẩm {} khỏi giỏ hàng của người dùng: {}", productIds, username);
         try {
-            Optional<Cart> cartOptional = cartRepository.findByUsername(username);
-            if (cartOptional.isPresent()) {
-                return cartItemRepository.findByCartId(cartOptional.get().getId());
+            int removed;
+            if (productIds == null) {
+                removed = cartItemRepository.deleteAllByUsername(username);
+            } else if (productIds.isEmpty()) {
+                removed = 0;
             } else {
-                logger.warn("Không tìm thấy giỏ hàng cho người dùng: {}", username);
-                return List.of();
+                removed = cartItemRepository.deleteByUsernameAndProductIdIn(username, productIds);
             }
+            logger.info("Xóa {} sản phẩm khỏi giỏ hàng của {}", removed, username);
+            return removed;
         } catch (Exception e) {
-            logger.error("Lỗi khi lấy danh sách sản phẩm trong giỏ hàng: {}", e.getMessage(), e);
-            throw new RuntimeException("Không thể lấy danh sách sản phẩm trong giỏ hàng: " + e.getMessage());
+            logger.error("Lỗi không xác định khi xóa sản phẩm khỏi giỏ hàng: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể xóa sản phẩm khỏi giỏ hàng: " + e.getMessage());
         }
     }
 
-    private Cart getOrCreateCart(String username) {
-        Optional<Cart> cartOptional = cartRepository.findByUsername(username);
-        if (cartOptional.isPresent()) {
-            return cartOptional.get();
-        } else {
-            Cart cart = new Cart();
-            cart.setUsername(username);
-            cart.setCreatedAt(LocalDateTime.now());
-            return cartRepository.save(cart);
+    @Override
+    public List<CartItem> getCartItems(String username) {
+        logger.debug("Lấy danh sách sản phẩm trong giỏ hàng của người dùng: {}", username);
+        try {
+            return cartItemRepository.findByUsername(username);
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy danh sách sản phẩm trong giỏ hàng: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể lấy danh sách sản phẩm trong giỏ hàng: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
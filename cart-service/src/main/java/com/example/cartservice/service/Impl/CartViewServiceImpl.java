@@ -0,0 +1,83 @@
+package com.example.cartservice.service.impl;
+
+import com.example.cartservice.dto.CartLineView;
+import com.example.cartservice.dto.CartView;
+import com.example.cartservice.dto.ProductAvailability;
+import com.example.cartservice.entity.CartItem;
+import com.example.cartservice.service.CartService;
+import com.example.cartservice.service.CartViewService;
+import com.example.cartservice.service.ProductCatalog;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class CartViewServiceImpl implements CartViewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartViewServiceImpl.class);
+    private final CartService cartService;
+    private final ProductCatalog productCatalog;
+
+    @Override
+    public CartView getCartView(String username) {
+        logger.debug("Lấy giỏ hàng kèm thông tin sản phẩm của người dùng: {}", username);
+        try {
+            List<CartItem> items = cartService.getCartItems(username);
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            for (CartItem item : items) {
+                quantities.put(item.getProductId(), item.getQuantity());
+            }
+            Map<Long, ProductAvailability> products = quantities.isEmpty()
+                    ? Map.of()
+                    : productCatalog.getAvailability(quantities);
+
+            List<CartLineView> lines = new ArrayList<>(items.size());
+            BigDecimal total = BigDecimal.ZERO;
+            int totalQuantity = 0;
+            boolean allInStock = true;
+            for (CartItem item : items) {
+                CartLineView line = new CartLineView();
+                line.setProductId(item.getProductId());
+                line.setQuantity(item.getQuantity());
+                ProductAvailability product = products.get(item.getProductId());
+                if (product != null && product.isFound()) {
+                    BigDecimal subtotal = BigDecimal.valueOf(product.getPrice())
+                            .multiply(BigDecimal.valueOf(item.getQuantity()))
+                            .setScale(2, RoundingMode.HALF_UP);
+                    line.setName(product.getName());
+                    line.setPrice(product.getPrice());
+                    line.setFound(true);
+                    line.setInStock(product.isAvailable());
+                    line.setSubtotal(subtotal.doubleValue());
+                    total = total.add(subtotal);
+                } else {
+                    logger.warn("Không tìm thấy sản phẩm {} trong giỏ hàng của người dùng: {}", item.getProductId(), username);
+                }
+                allInStock &= line.isInStock();
+                totalQuantity += item.getQuantity();
+                lines.add(line);
+            }
+
+            CartView view = new CartView();
+            view.setUsername(username);
+            view.setItems(lines);
+            view.setTotalQuantity(totalQuantity);
+            view.setTotalPrice(total.doubleValue());
+            view.setAllInStock(allInStock);
+            logger.info("Lấy giỏ hàng của người dùng {} với {} sản phẩm", username, lines.size());
+            return view;
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy giỏ hàng của người dùng {}: {}", username, e.getMessage());
+            throw new RuntimeException("Không thể lấy giỏ hàng: " + e.getMessage());
+        }
+    }
+}
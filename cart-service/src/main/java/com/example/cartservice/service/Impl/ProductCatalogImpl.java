@@ -0,0 +1,92 @@
+package com.example.cartservice.service.impl;
+
+import com.example.cartservice.dto.ProductAvailability;
+import com.example.cartservice.service.ProductCatalog;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Cache ngắn hạn trước POST /api/products/batch: các sản phẩm chưa có trong cache được lấy chung trong một request.
+// TTL ngắn vì tồn kho thay đổi liên tục; giá trị trong cache chỉ dùng để hiển thị, order-service vẫn kiểm tra lại khi đặt hàng.
+@Service
+public class ProductCatalogImpl implements ProductCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalogImpl.class);
+    private static final String PRODUCT_BATCH_URL = "http://product-service:8082/api/products/batch";
+    private final RestTemplate restTemplate;
+    private final Cache<Long, ProductAvailability> cache;
+
+    public ProductCatalogImpl(RestTemplate restTemplate,
+                              @Value("${product.cache.max-size:10000}") long maxSize,
+                              @Value("${product.cache.ttl-ms:5000}") long ttlMs) {
+        this.restTemplate = restTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    @Override
+    public Map<Long, ProductAvailability> getAvailability(Map<Long, Integer> quantities) {
+        Map<Long, ProductAvailability> result = new HashMap<>();
+        List<Map<String, Object>> misses = new ArrayList<>();
+        Map<Long, ProductAvailability> cached = cache.getAllPresent(quantities.keySet());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            ProductAvailability availability = cached.get(entry.getKey());
+            if (availability != null && answers(availability, entry.getValue())) {
+                result.put(entry.getKey(), withQuantity(availability, entry.getValue()));
+            } else {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("productId", entry.getKey());
+                line.put("quantity", entry.getValue());
+                misses.add(line);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        logger.debug("Gửi yêu cầu lấy thông tin {} sản phẩm tới: {}", misses.size(), PRODUCT_BATCH_URL);
+        ProductAvailability[] loaded = restTemplate.postForObject(PRODUCT_BATCH_URL, misses, ProductAvailability[].class);
+        if (loaded != null) {
+            for (ProductAvailability availability : loaded) {
+                cache.put(availability.getProductId(), availability);
+                result.put(availability.getProductId(), availability);
+            }
+        }
+        return result;
+    }
+
+    // Mục trong cache được kiểm tra với một số lượng khác vẫn trả lời được nếu kết quả không đổi:
+    // đủ hàng cho số lượng lớn hơn thì đủ cho số lượng nhỏ hơn, thiếu hàng cho số lượng nhỏ hơn thì thiếu cho số lượng lớn hơn
+    private boolean answers(ProductAvailability cached, int quantity) {
+        if (!cached.isFound() || cached.getRequestedQuantity() == quantity) {
+            return true;
+        }
+        return cached.isAvailable()
+                ? quantity < cached.getRequestedQuantity()
+                : quantity > cached.getRequestedQuantity();
+    }
+
+    private ProductAvailability withQuantity(ProductAvailability cached, int quantity) {
+        ProductAvailability copy = new ProductAvailability();
+        copy.setProductId(cached.getProductId());
+        copy.setName(cached.getName());
+        copy.setPrice(cached.getPrice());
+        copy.setRequestedQuantity(quantity);
+        copy.setFound(cached.isFound());
+        copy.setAvailable(cached.isAvailable());
+        return copy;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.cartservice.service.impl;
+
+import com.example.cartservice.entity.CartItem;
+import com.example.cartservice.service.CartService;
+import com.example.cartservice.store.WriteBehindCartStore;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// CartService dùng WriteBehindCartStore: trả lời ngay sau khi ghi WAL, database được cập nhật theo lô ở nền
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "write-behind")
+public class WriteBehindCartServiceImpl implements CartService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartServiceImpl.class);
+    private final WriteBehindCartStore cartStore;
+
+    @Override
+    public void addProductToCart(String username, Long productId, int quantity) {
+        logger.debug("Thêm sản phẩm {} vào giỏ hàng của người dùng: {}", productId, username);
+        try {
+            if (quantity <= 0) {
+                logger.warn("Số lượng không hợp lệ: {}", quantity);
+                throw new IllegalArgumentException("Số lượng phải lớn hơn 0");
+            }
+            int newQuantity = cartStore.add(username, productId, quantity);
+            logger.info("Sản phẩm {} trong giỏ hàng của {} có số lượng {}", productId, username, newQuantity);
+        } catch (IllegalArgumentException e) {
+            logger.error("Lỗi khi thêm sản phẩm vào giỏ hàng: {}", e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            logger.error("Lỗi không xác định khi thêm sản phẩm vào giỏ hàng: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể thêm sản phẩm vào giỏ hàng: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void updateProductQuantity(String username, Long productId, int quantity) {
+        logger.debug("Cập nhật số lượng sản phẩm {} trong giỏ hàng của người dùng: {}", productId, username);
+        try {
+            if (quantity <= 0) {
+                logger.warn("Số lượng không hợp lệ: {}", quantity);
+                throw new IllegalArgumentException("Số lượng phải lớn hơn 0");
+            }
+            if (!cartStore.set(username, productId, quantity)) {
+                logger.warn("Sản phẩm {} không tồn tại trong giỏ hàng của {}", productId, username);
+                throw new IllegalArgumentException("Sản phẩm không tồn tại trong giỏ hàng");
+            }
+            logger.info("Cập nhật số lượng sản phẩm {} thành {} trong giỏ hàng của {}", productId, quantity, username);
+        } catch (IllegalArgumentException e) {
+            logger.error("Lỗi khi cập nhật số lượng sản phẩm: {}", e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            logger.error("Lỗi không xác định khi cập nhật số lượng sản phẩm: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể cập nhật số lượng sản phẩm: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void removeProductFromCart(String username, Long productId) {
+        logger.debug("Xóa sản phẩm {} khỏi giỏ hàng của người dùng: {}", productId, username);
+        try {
+            if (!cartStore.remove(username, productId)) {
+                logger.warn("Sản phẩm {} không tồn tại trong giỏ hàng của {}", productId, username);
+                throw new IllegalArgumentException("Sản phẩm không tồn tại trong giỏ hàng");
+            }
+            logger.info("Xóa sản phẩm {} khỏi giỏ hàng của {}", productId, username);
+        } catch (IllegalArgumentException e) {
+            logger.error("Lỗi khi xóa sản phẩm khỏi giỏ hàng: {}", e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            logger.error("Lỗi không xác định khi xóa sản phẩm khỏi giỏ hàng: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể xóa sản phẩm khỏi giỏ hàng: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int removeProductsFromCart(String username, List<Long> productIds) {
+        logger.debug("Xóa sản phẩm {} khỏi giỏ hàng của người dùng: {}", productIds, username);
+        try {
+            int removed = cartStore.removeAll(username, productIds);
+            logger.info("Xóa {} sản phẩm khỏi giỏ hàng của {}", removed, username);
+            return removed;
+        } catch (Exception e) {
+            logger.error("Lỗi không xác định khi xóa sản phẩm khỏi giỏ hàng: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể xóa sản phẩm khỏi giỏ hàng: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<CartItem> getCartItems(String username) {
+        logger.debug("Lấy danh sách sản phẩm trong giỏ hàng của người dùng: {}", username);
+        try {
+            List<CartItem> items = new ArrayList<>();
+            for (Map.Entry<Long, Integer> entry : cartStore.items(username).entrySet()) {
+                CartItem item = new CartItem();
+                item.setProductId(entry.getKey());
+                item.setQuantity(entry.getValue());
+                items.add(item);
+            }
+            return items;
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy danh sách sản phẩm trong giỏ hàng: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể lấy danh sách sản phẩm trong giỏ hàng: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        try {
+            int rows = cartStore.flush();
+            if (rows > 0) {
+                logger.debug("Đã ghi {} thay đổi giỏ hàng xuống database", rows);
+            }
+        } catch (Exception e) {
+            // Thay đổi vẫn nằm trong bộ nhớ và WAL, lần flush sau sẽ thử lại
+            logger.error("Lỗi khi ghi giỏ hàng xuống database: {}", e.getMessage());
+        }
+    }
+
+    // Tắt máy bình thường: ghi hết thay đổi còn lại
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
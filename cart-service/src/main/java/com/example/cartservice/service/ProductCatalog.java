@@ -0,0 +1,10 @@
+package com.example.cartservice.service;
+
+import com.example.cartservice.dto.ProductAvailability;
+
+import java.util.Map;
+
+public interface ProductCatalog {
+    // Lấy tên, giá và tình trạng tồn kho cho nhiều sản phẩm (productId -> số lượng cần mua) bằng tối đa một lần gọi product-service
+    Map<Long, ProductAvailability> getAvailability(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,13 @@
+package com.example.cartservice.store;
+
+import java.util.Map;
+
+// Nơi lưu bền vững của WriteBehindCartStore (MySQL trong môi trường chạy thật)
+public interface CartPersistence {
+
+    // Đọc giỏ hàng của người dùng: productId -> số lượng
+    Map<Long, Integer> load(String username);
+
+    // Ghi một lô thay đổi trong một giao dịch: username -> (productId -> số lượng), số lượng 0 nghĩa là xóa
+    void write(Map<String, Map<Long, Integer>> changes);
+}
@@ -0,0 +1,218 @@
+package com.example.cartservice.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Nhật ký ghi trước (WAL) của giỏ hàng, chia thành các segment "cart-wal-{id}.log".
+ * <p>
+ * Mỗi bản ghi là số lượng tuyệt đối của một sản phẩm trong giỏ hàng (0 = đã xóa) nên phát lại nhiều lần vẫn cho
+ * cùng kết quả. Định dạng: [độ dài][username, productId, quantity][CRC32]; bản ghi cuối bị ghi dở khi crash sẽ bị bỏ qua.
+ * Khi bật fsync, các thread ghi đồng thời dùng chung một lần force (group commit).
+ */
+public class CartWriteAheadLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartWriteAheadLog.class);
+    private static final String SEGMENT_PREFIX = "cart-wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final Path directory;
+    private final boolean fsync;
+    // Thứ tự khóa: syncLock rồi mới tới writeLock
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    private long segmentId;
+    private long written;
+    private long synced;
+
+    public CartWriteAheadLog(Path directory, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        List<Long> existing = segmentIds();
+        this.segmentId = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        this.channel = open(segmentId);
+    }
+
+    // Ghi một bản ghi, trả về vị trí dùng cho sync()
+    public long append(String username, long productId, int quantity) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeUTF(username);
+        out.writeLong(productId);
+        out.writeInt(quantity);
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        ByteBuffer record = ByteBuffer.allocate(4 + bytes.length + 4);
+        record.putInt(bytes.length).put(bytes).putInt((int) crc.getValue()).flip();
+        synchronized (writeLock) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            written += record.limit();
+            return written;
+        }
+    }
+
+    // Đảm bảo mọi bản ghi tới vị trí "position" đã nằm trên đĩa
+    public void sync(long position) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            long target;
+            synchronized (writeLock) {
+                target = written;
+            }
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    // Chuyển sang segment mới; các segment cũ có thể xóa sau khi dữ liệu của chúng đã vào database
+    public long rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                channel.force(false);
+                channel.close();
+                segmentId++;
+                channel = open(segmentId);
+                synced = written;
+                return segmentId;
+            }
+        }
+    }
+
+    public void deleteSegmentsBefore(long segmentId) throws IOException {
+        for (Long id : segmentIds()) {
+            if (id < segmentId) {
+                Files.deleteIfExists(segmentPath(id));
+            }
+        }
+    }
+
+    // Đọc toàn bộ bản ghi của các segment theo thứ tự ghi
+    public List<Record> readAll() throws IOException {
+        List<Record> records = new ArrayList<>();
+        for (Long id : segmentIds()) {
+            readSegment(segmentPath(id), records);
+        }
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    private void readSegment(Path path, List<Record> records) throws IOException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(path));
+             DataInputStream in = new DataInputStream(stream)) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                    logger.warn("Bỏ qua phần cuối hỏng của {}", path);
+                    return;
+                }
+                byte[] bytes = new byte[length];
+                int storedCrc;
+                try {
+                    in.readFully(bytes);
+                    storedCrc = in.readInt();
+                } catch (EOFException e) {
+                    logger.warn("Bỏ qua bản ghi ghi dở ở cuối {}", path);
+                    return;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                if ((int) crc.getValue() != storedCrc) {
+                    logger.warn("Bỏ qua bản ghi sai CRC ở cuối {}", path);
+                    return;
+                }
+                DataInputStream payload = new DataInputStream(new ByteArrayInputStream(bytes));
+                records.add(new Record(payload.readUTF(), payload.readLong(), payload.readInt()));
+            }
+        }
+    }
+
+    private FileChannel open(long id) throws IOException {
+        return FileChannel.open(segmentPath(id), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+    }
+
+    private List<Long> segmentIds() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public static final class Record {
+        private final String username;
+        private final long productId;
+        private final int quantity;
+
+        Record(String username, long productId, int quantity) {
+            this.username = username;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public long getProductId() {
+            return productId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.cartservice.store;
+
+import com.example.cartservice.entity.CartItem;
+import com.example.cartservice.repository.CartItemRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ghi lô thay đổi của WriteBehindCartStore vào bảng carts/cart_items bằng JDBC batch trong một giao dịch
+public class JdbcCartPersistence implements CartPersistence {
+
+    private static final String INSERT_CART =
+            "INSERT INTO carts (username, created_at) VALUES (?, NOW()) ON DUPLICATE KEY UPDATE id = id";
+    private static final String UPSERT_ITEM =
+            "INSERT INTO cart_items (cart_id, product_id, quantity, created_at) " +
+            "SELECT c.id, ?, ?, NOW() FROM carts c WHERE c.username = ? " +
+            "ON DUPLICATE KEY UPDATE quantity = ?";
+    private static final String DELETE_ITEM =
+            "DELETE ci FROM cart_items ci JOIN carts c ON c.id = ci.cart_id " +
+            "WHERE c.username = ? AND ci.product_id = ?";
+
+    private final CartItemRepository cartItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcCartPersistence(CartItemRepository cartItemRepository,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate) {
+        this.cartItemRepository = cartItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public Map<Long, Integer> load(String username) {
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        for (CartItem item : cartItemRepository.findByUsername(username)) {
+            items.put(item.getProductId(), item.getQuantity());
+        }
+        return items;
+    }
+
+    @Override
+    public void write(Map<String, Map<Long, Integer>> changes) {
+        List<Object[]> carts = new ArrayList<>();
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (Map.Entry<String, Map<Long, Integer>> cart : changes.entrySet()) {
+            boolean hasItems = false;
+            for (Map.Entry<Long, Integer> item : cart.getValue().entrySet()) {
+                if (item.getValue() > 0) {
+                    upserts.add(new Object[]{item.getKey(), item.getValue(), cart.getKey(), item.getValue()});
+                    hasItems = true;
+                } else {
+                    deletes.add(new Object[]{cart.getKey(), item.getKey()});
+                }
+            }
+            if (hasItems) {
+                carts.add(new Object[]{cart.getKey()});
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!carts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_CART, carts);
+            }
+            if (!upserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_ITEM, upserts);
+            }
+            if (!deletes.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_ITEM, deletes);
+            }
+        });
+    }
+}
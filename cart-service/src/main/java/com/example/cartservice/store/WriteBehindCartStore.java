@@ -0,0 +1,276 @@
+package com.example.cartservice.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Giỏ hàng trong bộ nhớ, ghi xuống database theo lô (write-behind).
+ * <p>
+ * Giỏ hàng được chia vào các shard theo username, mỗi shard có khóa riêng. Mỗi thay đổi được ghi vào WAL trước khi
+ * trả lời client; flush() gộp các thay đổi (chỉ giữ số lượng cuối cùng của mỗi sản phẩm) và ghi cả lô trong một
+ * giao dịch, sau đó xóa các segment WAL đã được ghi xong. Khi khởi động, recover() phát lại WAL vào database.
+ * Giỏ hàng còn thay đổi chưa flush không bao giờ bị loại khỏi bộ nhớ.
+ */
+public class WriteBehindCartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartStore.class);
+    private final Shard[] shards;
+    private final CartWriteAheadLog wal;
+    private final CartPersistence persistence;
+    private final long idleEvictMs;
+
+    public WriteBehindCartStore(CartWriteAheadLog wal, CartPersistence persistence, int shardCount, long idleEvictMs) {
+        this.wal = wal;
+        this.persistence = persistence;
+        this.idleEvictMs = idleEvictMs;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    // Phát lại WAL còn sót lại từ lần chạy trước (sau crash) rồi xóa nó
+    public int recover() {
+        try {
+            Map<String, Map<Long, Integer>> changes = new HashMap<>();
+            int records = 0;
+            for (CartWriteAheadLog.Record record : wal.readAll()) {
+                changes.computeIfAbsent(record.getUsername(), u -> new LinkedHashMap<>())
+                        .put(record.getProductId(), record.getQuantity());
+                records++;
+            }
+            long current = wal.rotate();
+            if (!changes.isEmpty()) {
+                persistence.write(changes);
+                logger.info("Đã khôi phục {} bản ghi WAL của {} giỏ hàng", records, changes.size());
+            }
+            wal.deleteSegmentsBefore(current);
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không thể khôi phục WAL giỏ hàng", e);
+        }
+    }
+
+    // Cộng thêm số lượng, trả về số lượng mới
+    public int add(String username, long productId, int quantity) {
+        Shard shard = shardFor(username);
+        long position;
+        int newQuantity;
+        shard.lock.lock();
+        try {
+            Map<Long, Integer> items = loadCart(shard, username);
+            newQuantity = items.getOrDefault(productId, 0) + quantity;
+            position = record(shard, username, productId, newQuantity);
+            items.put(productId, newQuantity);
+        } finally {
+            shard.lock.unlock();
+        }
+        sync(position);
+        return newQuantity;
+    }
+
+    // Đặt số lượng; trả về false nếu sản phẩm không có trong giỏ hàng
+    public boolean set(String username, long productId, int quantity) {
+        Shard shard = shardFor(username);
+        long position;
+        shard.lock.lock();
+        try {
+            Map<Long, Integer> items = loadCart(shard, username);
+            if (!items.containsKey(productId)) {
+                return false;
+            }
+            position = record(shard, username, productId, quantity);
+            items.put(productId, quantity);
+        } finally {
+            shard.lock.unlock();
+        }
+        sync(position);
+        return true;
+    }
+
+    // Xóa sản phẩm; trả về false nếu sản phẩm không có trong giỏ hàng
+    public boolean remove(String username, long productId) {
+        Shard shard = shardFor(username);
+        long position;
+        shard.lock.lock();
+        try {
+            Map<Long, Integer> items = loadCart(shard, username);
+            if (!items.containsKey(productId)) {
+                return false;
+            }
+            position = record(shard, username, productId, 0);
+            items.remove(productId);
+        } finally {
+            shard.lock.unlock();
+        }
+        sync(position);
+        return true;
+    }
+
+    // Xóa các sản phẩm đã cho (null = toàn bộ giỏ hàng); trả về số sản phẩm đã xóa
+    public int removeAll(String username, Collection<Long> productIds) {
+        Shard shard = shardFor(username);
+        long position = 0;
+        int removed = 0;
+        shard.lock.lock();
+        try {
+            Map<Long, Integer> items = loadCart(shard, username);
+            for (Long productId : new ArrayList<>(productIds != null ? productIds : items.keySet())) {
+                if (items.containsKey(productId)) {
+                    position = record(shard, username, productId, 0);
+                    items.remove(productId);
+                    removed++;
+                }
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        if (removed > 0) {
+            sync(position);
+        }
+        return removed;
+    }
+
+    // Bản sao các sản phẩm trong giỏ hàng: productId -> số lượng, theo thứ tự thêm vào
+    public Map<Long, Integer> items(String username) {
+        Shard shard = shardFor(username);
+        shard.lock.lock();
+        try {
+            return new LinkedHashMap<>(loadCart(shard, username));
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Ghi các thay đổi đã gộp xuống database; trả về số dòng đã ghi
+    public int flush() {
+        long currentSegment;
+        try {
+            // Chuyển segment trước khi lấy danh sách thay đổi: mọi bản ghi ở segment cũ đều đã được đánh dấu dirty
+            currentSegment = wal.rotate();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không thể chuyển segment WAL", e);
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, Map<Long, Integer>> changes = new HashMap<>();
+        Map<String, Set<Long>> taken = new HashMap<>();
+        int rows = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                Map<String, Set<Long>> dirty = shard.dirty;
+                shard.dirty = new HashMap<>();
+                for (Map.Entry<String, Set<Long>> entry : dirty.entrySet()) {
+                    Map<Long, Integer> items = shard.carts.get(entry.getKey()).items;
+                    Map<Long, Integer> userChanges = new LinkedHashMap<>();
+                    for (Long productId : entry.getValue()) {
+                        userChanges.put(productId, items.getOrDefault(productId, 0));
+                    }
+                    changes.put(entry.getKey(), userChanges);
+                    rows += userChanges.size();
+                }
+                taken.putAll(dirty);
+                shard.carts.entrySet().removeIf(cart -> !dirty.containsKey(cart.getKey())
+                        && now - cart.getValue().lastAccess > idleEvictMs);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+
+        try {
+            if (!changes.isEmpty()) {
+                persistence.write(changes);
+            }
+            wal.deleteSegmentsBefore(currentSegment);
+            return rows;
+        } catch (RuntimeException | IOException e) {
+            // Giữ WAL và đánh dấu dirty lại để lần flush sau thử lại
+            for (Map.Entry<String, Set<Long>> entry : taken.entrySet()) {
+                Shard shard = shardFor(entry.getKey());
+                shard.lock.lock();
+                try {
+                    shard.dirty.computeIfAbsent(entry.getKey(), u -> new HashSet<>()).addAll(entry.getValue());
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+            logger.error("Không thể ghi {} thay đổi giỏ hàng xuống database: {}", rows, e.getMessage(), e);
+            throw e instanceof RuntimeException ? (RuntimeException) e : new UncheckedIOException((IOException) e);
+        }
+    }
+
+    public int pendingCarts() {
+        int count = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                count += shard.dirty.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    private Map<Long, Integer> loadCart(Shard shard, String username) {
+        CartState state = shard.carts.get(username);
+        if (state == null) {
+            state = new CartState(new LinkedHashMap<>(persistence.load(username)));
+            shard.carts.put(username, state);
+        }
+        state.lastAccess = System.currentTimeMillis();
+        return state.items;
+    }
+
+    // Ghi WAL trước, chỉ khi thành công mới đổi trạng thái trong bộ nhớ (gọi khi đang giữ khóa shard)
+    private long record(Shard shard, String username, long productId, int quantity) {
+        long position;
+        try {
+            position = wal.append(username, productId, quantity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không thể ghi WAL giỏ hàng", e);
+        }
+        shard.dirty.computeIfAbsent(username, u -> new HashSet<>()).add(productId);
+        return position;
+    }
+
+    private void sync(long position) {
+        try {
+            wal.sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không thể đồng bộ WAL giỏ hàng", e);
+        }
+    }
+
+    private Shard shardFor(String username) {
+        return shards[Math.floorMod(username.hashCode(), shards.length)];
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, CartState> carts = new HashMap<>();
+        // username -> các productId thay đổi từ lần flush trước
+        private Map<String, Set<Long>> dirty = new HashMap<>();
+    }
+
+    private static final class CartState {
+        private final Map<Long, Integer> items;
+        private long lastAccess;
+
+        CartState(Map<Long, Integer> items) {
+            this.items = items;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.cartservice.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindCartStoreTest {
+
+    @TempDir
+    Path walDir;
+
+    private final FakeDatabase database = new FakeDatabase();
+
+    @Test
+    void coalescesChangesIntoOneBatch() throws IOException {
+        WriteBehindCartStore store = newStore();
+        store.add("alice", 1L, 1);
+        store.add("alice", 1L, 2);
+        store.add("alice", 2L, 1);
+        store.remove("alice", 2L);
+        store.set("alice", 1L, 5);
+
+        assertEquals(2, store.flush());
+        assertEquals(1, database.batches.size());
+        assertEquals(Map.of(1L, 5), database.carts.get("alice"));
+        assertEquals(0, store.pendingCarts());
+    }
+
+    @Test
+    void recoversAcknowledgedWritesAfterCrash() throws IOException {
+        WriteBehindCartStore store = newStore();
+        store.add("alice", 1L, 2);
+        store.add("bob", 7L, 1);
+        store.flush();
+        store.add("alice", 1L, 3);
+        store.add("alice", 3L, 1);
+        store.remove("bob", 7L);
+        // Crash: the process dies before the next flush, nothing is closed or flushed
+
+        WriteBehindCartStore restarted = newStore();
+        assertEquals(3, restarted.recover());
+
+        assertEquals(Map.of(1L, 5, 3L, 1), database.carts.get("alice"));
+        assertTrue(database.carts.get("bob").isEmpty());
+        assertEquals(Map.of(1L, 5, 3L, 1), restarted.items("alice"));
+        // The replayed log is removed once it is in the database
+        assertEquals(0, newStore().recover());
+    }
+
+    @Test
+    void ignoresRecordTornByCrash() throws IOException {
+        WriteBehindCartStore store = newStore();
+        store.add("alice", 1L, 2);
+        try (var files = Files.list(walDir)) {
+            Path segment = files.filter(path -> path.toString().endsWith(".log")).findFirst().orElseThrow();
+            Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+        }
+
+        assertEquals(1, newStore().recover());
+        assertEquals(Map.of(1L, 2), database.carts.get("alice"));
+    }
+
+    @Test
+    void keepsChangesWhenDatabaseWriteFails() throws IOException {
+        WriteBehindCartStore store = newStore();
+        store.add("alice", 1L, 2);
+        database.failNextWrite = true;
+
+        assertThrows(IllegalStateException.class, store::flush);
+        assertEquals(1, store.pendingCarts());
+        assertEquals(1, store.flush());
+        assertEquals(Map.of(1L, 2), database.carts.get("alice"));
+    }
+
+    @Test
+    void removesSeveralItemsOrWholeCart() throws IOException {
+        WriteBehindCartStore store = newStore();
+        store.add("alice", 1L, 1);
+        store.add("alice", 2L, 1);
+        store.add("alice", 3L, 1);
+
+        assertEquals(2, store.removeAll("alice", List.of(1L, 2L, 9L)));
+        assertEquals(Map.of(3L, 1), store.items("alice"));
+        assertEquals(1, store.removeAll("alice", null));
+        store.flush();
+        assertTrue(database.carts.get("alice").isEmpty());
+    }
+
+    @Test
+    void reportsMissingItems() throws IOException {
+        WriteBehindCartStore store = newStore();
+
+        assertFalse(store.set("alice", 1L, 3));
+        assertFalse(store.remove("alice", 1L));
+    }
+
+    private WriteBehindCartStore newStore() throws IOException {
+        return new WriteBehindCartStore(new CartWriteAheadLog(walDir, true), database, 4, 60_000);
+    }
+
+    private static final class FakeDatabase implements CartPersistence {
+        private final Map<String, Map<Long, Integer>> carts = new HashMap<>();
+        private final List<Map<String, Map<Long, Integer>>> batches = new ArrayList<>();
+        private boolean failNextWrite;
+
+        @Override
+        public Map<Long, Integer> load(String username) {
+            return new LinkedHashMap<>(carts.getOrDefault(username, Map.of()));
+        }
+
+        @Override
+        public void write(Map<String, Map<Long, Integer>> changes) {
+            if (failNextWrite) {
+                failNextWrite = false;
+                throw new IllegalStateException("database unavailable");
+            }
+            batches.add(changes);
+            changes.forEach((username, items) -> {
+                Map<Long, Integer> cart = carts.computeIfAbsent(username, u -> new LinkedHashMap<>());
+                items.forEach((productId, quantity) -> {
+                    if (quantity > 0) {
+                        cart.put(productId, quantity);
+                    } else {
+                        cart.remove(productId);
+                    }
+                });
+            });
+        }
+    }
+}
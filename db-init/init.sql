@@ -39,7 +39,7 @@ CREATE TABLE orders (
     status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (customer_username) REFERENCES users(username) ON DELETE RESTRICT ON UPDATE CASCADE,
-    INDEX idx_customer_username (customer_username)
+    INDEX idx_orders_customer_created (customer_username, created_at, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Tạo bảng OrderItems
@@ -55,6 +55,19 @@ CREATE TABLE orderitems (
     INDEX idx_product_id (product_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Bộ sinh id dạng bảng (pooled, cấp phát 50 id mỗi lần) cho Order Service, thay cho AUTO_INCREMENT để Hibernate gom batch INSERT.
+-- Giá trị khởi tạo phải lớn hơn id lớn nhất hiện có + 49; database cũ dùng db-init/migrate-id-generator.sql.
+CREATE TABLE id_generator (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'orders', COALESCE(MAX(id), 0) + 51 FROM orders;
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'order_items', COALESCE(MAX(id), 0) + 51 FROM orderitems;
+INSERT INTO id_generator (sequence_name, next_val) VALUES ('order_outbox', 51);
+
 -- Tạo bảng CartItems (dành cho Cart Service, nếu lưu trữ giỏ hàng trong database)
 CREATE TABLE cartitems (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -67,6 +80,24 @@ CREATE TABLE cartitems (
     INDEX idx_product_id (product_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Giỏ hàng của Cart Service. Ràng buộc unique được tạo ở đây thay vì dựa vào ddl-auto: lệnh upsert của Cart Service
+-- chỉ đúng khi có chúng (database cũ: chạy migrate-cart-items-unique.sql)
+CREATE TABLE carts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    created_at DATETIME(6),
+    UNIQUE KEY uk_carts_username (username)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE cart_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cart_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    created_at DATETIME(6),
+    UNIQUE KEY uk_cart_items_cart_product (cart_id, product_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- Thêm dữ liệu mẫu
 INSERT INTO users (username, password, role, is_active, email)
 VALUES 
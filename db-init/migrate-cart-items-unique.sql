@@ -0,0 +1,42 @@
+-- Ràng buộc unique (cart_id, product_id) cho bảng cart_items của Cart Service.
+-- Lệnh INSERT ... ON DUPLICATE KEY UPDATE của Cart Service chỉ cộng dồn số lượng khi có ràng buộc này; thiếu nó,
+-- mỗi lần thêm sản phẩm sẽ tạo thêm một dòng trùng. Hibernate (ddl-auto=update) không tạo được ràng buộc khi bảng
+-- đã có dòng trùng, nên với database cũ cần chạy script này (nên dừng Cart Service trong lúc chạy):
+--   docker exec -i mysql-db mysql -uroot -p123456 < db-init/migrate-cart-items-unique.sql
+-- Script chạy lại nhiều lần không sao: không làm gì nếu bảng chưa có hoặc ràng buộc đã tồn tại.
+USE order_db;
+
+DROP PROCEDURE IF EXISTS add_cart_items_unique_key;
+
+DELIMITER //
+CREATE PROCEDURE add_cart_items_unique_key()
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.tables
+               WHERE table_schema = DATABASE() AND table_name = 'cart_items')
+       AND NOT EXISTS (SELECT 1 FROM information_schema.statistics
+                       WHERE table_schema = DATABASE() AND table_name = 'cart_items'
+                         AND index_name = 'uk_cart_items_cart_product') THEN
+        -- Gộp các dòng trùng: dòng có id nhỏ nhất giữ tổng số lượng, các dòng còn lại bị xóa
+        UPDATE cart_items ci
+        JOIN (SELECT MIN(id) AS keep_id, SUM(quantity) AS total_quantity
+              FROM cart_items
+              GROUP BY cart_id, product_id
+              HAVING COUNT(*) > 1) duplicates ON ci.id = duplicates.keep_id
+        SET ci.quantity = duplicates.total_quantity;
+
+        DELETE ci FROM cart_items ci
+        JOIN (SELECT cart_id, product_id, MIN(id) AS keep_id
+              FROM cart_items
+              GROUP BY cart_id, product_id
+              HAVING COUNT(*) > 1) duplicates
+          ON ci.cart_id = duplicates.cart_id
+         AND ci.product_id = duplicates.product_id
+         AND ci.id <> duplicates.keep_id;
+
+        ALTER TABLE cart_items ADD UNIQUE KEY uk_cart_items_cart_product (cart_id, product_id);
+    END IF;
+END //
+DELIMITER ;
+
+CALL add_cart_items_unique_key();
+DROP PROCEDURE add_cart_items_unique_key;
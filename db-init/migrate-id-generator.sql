@@ -0,0 +1,41 @@
+-- Bảng id_generator cho Order Service (bộ sinh id dạng bảng, pooled, cấp phát 50 id mỗi lần) trên database cũ.
+-- init.sql chỉ chạy khi volume MySQL còn trống. Với database đã có dữ liệu, ddl-auto=update chỉ tạo bảng id_generator
+-- rỗng và Hibernate tự thêm dòng với giá trị khởi tạo 1, nên id mới trùng với id đã có và mọi INSERT đều lỗi trùng khóa.
+-- Chạy script này trước khi khởi động Order Service phiên bản mới (nên dừng Order Service trong lúc chạy):
+--   docker exec -i mysql-db mysql -uroot -p123456 < db-init/migrate-id-generator.sql
+-- Script chạy lại nhiều lần không sao: chỉ thêm dòng còn thiếu hoặc nâng next_val khi nó chưa vượt MAX(id) + 50.
+USE order_db;
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+DROP PROCEDURE IF EXISTS seed_id_generator;
+
+DELIMITER //
+-- Với allocationSize = 50, Hibernate dùng dải id (next_val - 49 .. next_val) cho lần cấp phát kế tiếp,
+-- nên next_val phải lớn hơn MAX(id) + 49; dùng MAX(id) + 51 như init.sql.
+CREATE PROCEDURE seed_id_generator(IN seq VARCHAR(255), IN tbl VARCHAR(64))
+BEGIN
+    SET @max_id = 0;
+    IF EXISTS (SELECT 1 FROM information_schema.tables
+               WHERE table_schema = DATABASE() AND table_name = tbl) THEN
+        SET @max_sql = CONCAT('SELECT COALESCE(MAX(id), 0) INTO @max_id FROM `', tbl, '`');
+        PREPARE max_stmt FROM @max_sql;
+        EXECUTE max_stmt;
+        DEALLOCATE PREPARE max_stmt;
+    END IF;
+
+    INSERT INTO id_generator (sequence_name, next_val)
+    VALUES (seq, @max_id + 51)
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, @max_id + 51);
+END //
+DELIMITER ;
+
+-- Hibernate đặt tên bảng của OrderItem là order_items; init.sql cũ tạo orderitems. Gọi cả hai, GREATEST giữ giá trị lớn hơn.
+CALL seed_id_generator('orders', 'orders');
+CALL seed_id_generator('order_items', 'orderitems');
+CALL seed_id_generator('order_items', 'order_items');
+CALL seed_id_generator('order_outbox', 'order_outbox');
+DROP PROCEDURE seed_id_generator;
@@ -0,0 +1,94 @@
+package com.example.notificationservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Cấu hình HTTP client dùng chung (có pool kết nối) cho các lời gọi tới product-service và Resend (prefix "http.client")
+@ConfigurationProperties(prefix = "http.client")
+public class HttpClientProperties {
+    private int maxTotal = 200;
+    private int maxPerRoute = 50;
+    // Giới hạn kết nối riêng cho từng host, khóa gồm cả scheme (cổng mặc định theo scheme nếu bỏ trống),
+    // ví dụ http.client.max-per-route-overrides[https://api.resend.com]=20
+    private Map<String, Integer> maxPerRouteOverrides = new HashMap<>();
+    private int connectTimeoutMs = 2000;
+    private int readTimeoutMs = 10000;
+    private int connectionRequestTimeoutMs = 2000;
+    private long keepAliveMs = 30000;
+    private long idleTimeoutMs = 60000;
+    private int validateAfterInactivityMs = 2000;
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public Map<String, Integer> getMaxPerRouteOverrides() {
+        return maxPerRouteOverrides;
+    }
+
+    public void setMaxPerRouteOverrides(Map<String, Integer> maxPerRouteOverrides) {
+        this.maxPerRouteOverrides = maxPerRouteOverrides;
+    }
+
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(int connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public int getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public void setReadTimeoutMs(int readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    public int getConnectionRequestTimeoutMs() {
+        return connectionRequestTimeoutMs;
+    }
+
+    public void setConnectionRequestTimeoutMs(int connectionRequestTimeoutMs) {
+        this.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+    }
+
+    public long getKeepAliveMs() {
+        return keepAliveMs;
+    }
+
+    public void setKeepAliveMs(long keepAliveMs) {
+        this.keepAliveMs = keepAliveMs;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public int getValidateAfterInactivityMs() {
+        return validateAfterInactivityMs;
+    }
+
+    public void setValidateAfterInactivityMs(int validateAfterInactivityMs) {
+        this.validateAfterInactivityMs = validateAfterInactivityMs;
+    }
+}
@@ -1,16 +1,97 @@
 package com.example.notificationservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URISyntaxException;
+import java.util.Map;
+
 @Configuration
 @EnableAsync
+@EnableScheduling
+@EnableConfigurationProperties(HttpClientProperties.class)
 public class NotificationConfig {
 
+    @Bean(destroyMethod = "close")
+    public MeteredConnectionManager httpConnectionManager(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        MeteredConnectionManager connectionManager = new MeteredConnectionManager(meterRegistry, "notification-service");
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeoutMs()))
+                .setSocketTimeout(Timeout.ofMilliseconds(properties.getReadTimeoutMs()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(properties.getValidateAfterInactivityMs()))
+                .build());
+        for (Map.Entry<String, Integer> override : properties.getMaxPerRouteOverrides().entrySet()) {
+            connectionManager.setMaxPerRoute(overrideRoute(override.getKey()), override.getValue());
+        }
+
+        // Số kết nối đang mượn/rảnh/đang chờ/tối đa của pool
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "notification-service").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(MeteredConnectionManager httpConnectionManager, HttpClientProperties properties) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionRequestTimeoutMs()))
+                .build();
+        TimeValue maxKeepAlive = TimeValue.ofMilliseconds(properties.getKeepAliveMs());
+
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                // Dùng keep-alive của server nếu ngắn hơn, nếu không giữ kết nối rảnh trong keep-alive-ms
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return TimeValue.isPositive(serverKeepAlive) && serverKeepAlive.compareTo(maxKeepAlive) < 0
+                            ? serverKeepAlive
+                            : maxKeepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleTimeoutMs()))
+                .build();
+    }
+
+    // Khóa dạng "https://host[:port]". Route phải trùng với route của request: cổng cụ thể (cổng bỏ trống được lấy
+    // theo scheme) và cờ secure cho https, nếu không giới hạn riêng không bao giờ được áp dụng
+    static HttpRoute overrideRoute(String key) {
+        if (!key.contains("://")) {
+            throw new IllegalArgumentException("http.client.max-per-route-overrides phải có scheme (http:// hoặc https://): " + key);
+        }
+        HttpHost host;
+        try {
+            host = HttpHost.create(key);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("http.client.max-per-route-overrides không hợp lệ: " + key, e);
+        }
+        if (host.getPort() < 0) {
+            host = new HttpHost(host.getSchemeName(), host.getHostName(),
+                    DefaultSchemePortResolver.INSTANCE.resolve(host));
+        }
+        return new HttpRoute(host, null, "https".equalsIgnoreCase(host.getSchemeName()));
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
     }
-}
\ No newline at end of file
+}
@@ -1,30 +1,82 @@
 package com.example.notificationservice.controller;
 
+import com.example.notificationservice.dto.OrderConfirmation;
+import com.example.notificationservice.dto.OrderConfirmationItem;
 import com.example.notificationservice.service.NotificationService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/notifications")
 @RequiredArgsConstructor
 public class NotificationController {
 
+    private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
+    // Kiểm tra cú pháp cơ bản; địa chỉ sai làm nhà cung cấp từ chối cả batch email gửi chung
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final TypeReference<List<OrderConfirmationItem>> ITEM_LIST = new TypeReference<>() {};
     private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+
+    // Hợp đồng v2: items là mảng JSON có kiểu (productId, name, quantity, price), không phải chuỗi JSON lồng trong JSON
+    @PostMapping("/v2/email")
+    public ResponseEntity<Void> enqueueOrderConfirmationEmail(@RequestBody OrderConfirmation request) {
+        return enqueue(request);
+    }
 
+    // Hợp đồng cũ, giữ lại cho các client chưa chuyển sang v2: items là chuỗi JSON
     @PostMapping("/email")
     public ResponseEntity<Void> sendOrderConfirmationEmail(@RequestBody EmailRequest request) {
-        notificationService.sendOrderConfirmationEmail(
+        return enqueue(new OrderConfirmation(
                 request.getEmail(),
                 request.getOrderId(),
                 request.getStatus(),
-                request.getItems(),
+                parseLegacyItems(request.getItems()),
                 request.getTotalPrice()
-        );
-        return ResponseEntity.ok().build();
+        ));
+    }
+
+    // Chỉ đưa email vào hàng đợi rồi trả 202 ngay; hàng đợi đầy thì trả 503 để bên gọi thử lại sau
+    private ResponseEntity<Void> enqueue(OrderConfirmation confirmation) {
+        if (confirmation.getEmail() == null || confirmation.getEmail().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email không được để trống");
+        }
+        if (!EMAIL_PATTERN.matcher(confirmation.getEmail().trim()).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email không hợp lệ: " + confirmation.getEmail());
+        }
+        if (!notificationService.enqueueOrderConfirmationEmail(confirmation)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    private List<OrderConfirmationItem> parseLegacyItems(String items) {
+        if (items == null || items.isBlank()) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(items, ITEM_LIST);
+        } catch (Exception e) {
+            logger.warn("Không thể phân tích items: {}, sử dụng thông tin mặc định", items, e);
+            return new ArrayList<>();
+        }
     }
 
-    // DTO để nhận thông tin từ request
+    // DTO để nhận thông tin từ request (hợp đồng cũ)
     public static class EmailRequest {
         private String email;
         private Long orderId;
@@ -43,4 +95,4 @@ public class NotificationController {
         public double getTotalPrice() { return totalPrice; }
         public void setTotalPrice(double totalPrice) { this.totalPrice = totalPrice; }
     }
-}
\ No newline at end of file
+}
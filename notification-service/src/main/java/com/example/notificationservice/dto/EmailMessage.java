@@ -0,0 +1,27 @@
+package com.example.notificationservice.dto;
+
+// Một email đã được dựng nội dung, sẵn sàng gửi tới nhà cung cấp
+public class EmailMessage {
+    private String to;
+    private String subject;
+    private String text;
+    private String html;
+
+    public EmailMessage() {
+    }
+
+    public EmailMessage(String to, String subject, String text) {
+        this.to = to;
+        this.subject = subject;
+        this.text = text;
+    }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+    public String getHtml() { return html; }
+    public void setHtml(String html) { this.html = html; }
+}
@@ -0,0 +1,40 @@
+package com.example.notificationservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Yêu cầu gửi email xác nhận đơn hàng (body của POST /api/notifications/v2/email), cũng là phần tử trong hàng đợi
+public class OrderConfirmation {
+    private String email;
+    private Long orderId;
+    private String status;
+    private List<OrderConfirmationItem> items = new ArrayList<>();
+    private double totalPrice;
+    // Ngôn ngữ của email (vi, en); không có thì dùng notification.templates.default-locale
+    private String locale;
+
+    public OrderConfirmation() {
+    }
+
+    public OrderConfirmation(String email, Long orderId, String status, List<OrderConfirmationItem> items,
+                             double totalPrice) {
+        this.email = email;
+        this.orderId = orderId;
+        this.status = status;
+        this.items = items;
+        this.totalPrice = totalPrice;
+    }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public List<OrderConfirmationItem> getItems() { return items; }
+    public void setItems(List<OrderConfirmationItem> items) { this.items = items; }
+    public double getTotalPrice() { return totalPrice; }
+    public void setTotalPrice(double totalPrice) { this.totalPrice = totalPrice; }
+    public String getLocale() { return locale; }
+    public void setLocale(String locale) { this.locale = locale; }
+}
@@ -0,0 +1,34 @@
+package com.example.notificationservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// Một dòng hàng trong email xác nhận; name/price có thể thiếu ở các yêu cầu cũ (khi đó được tra trong ProductCache)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OrderConfirmationItem {
+    private Long productId;
+    private String name;
+    private int quantity;
+    // Yêu cầu cũ gửi nguyên OrderItem của order-service, giá nằm trong unitPrice
+    @JsonAlias("unitPrice")
+    private Double price;
+
+    public OrderConfirmationItem() {
+    }
+
+    public OrderConfirmationItem(Long productId, String name, int quantity, Double price) {
+        this.productId = productId;
+        this.name = name;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+}
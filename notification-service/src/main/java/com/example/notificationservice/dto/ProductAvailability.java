@@ -0,0 +1,18 @@
+package com.example.notificationservice.dto;
+
+// Kết quả của POST /api/products/batch (product-service) cho một sản phẩm
+public class ProductAvailability {
+    private Long productId;
+    private String name;
+    private double price;
+    private boolean found;
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public double getPrice() { return price; }
+    public void setPrice(double price) { this.price = price; }
+    public boolean isFound() { return found; }
+    public void setFound(boolean found) { this.found = found; }
+}
@@ -0,0 +1,20 @@
+package com.example.notificationservice.dto;
+
+import java.util.Set;
+
+// Response của product-service GET /api/products/changes
+public class ProductChanges {
+    private String epoch;
+    private long sequence;
+    private boolean reset;
+    private Set<Long> productIds;
+
+    public String getEpoch() { return epoch; }
+    public void setEpoch(String epoch) { this.epoch = epoch; }
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence; }
+    public boolean isReset() { return reset; }
+    public void setReset(boolean reset) { this.reset = reset; }
+    public Set<Long> getProductIds() { return productIds; }
+    public void setProductIds(Set<Long> productIds) { this.productIds = productIds; }
+}
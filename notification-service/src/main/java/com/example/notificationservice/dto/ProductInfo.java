@@ -0,0 +1,15 @@
+package com.example.notificationservice.dto;
+
+// Tên và giá sản phẩm lấy từ product-service, được giữ trong ProductCache
+public class ProductInfo {
+    private Long id;
+    private String name;
+    private double price;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public double getPrice() { return price; }
+    public void setPrice(double price) { this.price = price; }
+}
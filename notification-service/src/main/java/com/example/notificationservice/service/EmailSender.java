@@ -0,0 +1,13 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.EmailMessage;
+
+import java.util.List;
+
+public interface EmailSender {
+    // Gửi nhiều email trong một request tới nhà cung cấp; lỗi HTTP được ném ra để bên gọi quyết định thử lại
+    void sendBatch(List<EmailMessage> messages);
+
+    // Số email tối đa nhà cung cấp chấp nhận trong một request
+    int maxBatchSize();
+}
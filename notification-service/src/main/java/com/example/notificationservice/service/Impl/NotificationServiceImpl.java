@@ -1,109 +1,314 @@
 package com.example.notificationservice.service.Impl;
 
+import com.example.notificationservice.dto.EmailMessage;
+import com.example.notificationservice.dto.OrderConfirmation;
+import com.example.notificationservice.dto.OrderConfirmationItem;
+import com.example.notificationservice.dto.ProductInfo;
+import com.example.notificationservice.service.EmailSender;
 import com.example.notificationservice.service.NotificationService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.example.notificationservice.service.ProductCache;
+import com.example.notificationservice.template.EmailTemplates;
+import com.example.notificationservice.template.OrderConfirmationModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+// Email xác nhận được nhận vào hàng đợi giới hạn trong bộ nhớ và gửi nền bởi các worker.
+// Mỗi worker gom tối đa batch-size email (chờ thêm tối đa batch-linger-ms) rồi gửi bằng một request batch,
+// số request tới nhà cung cấp bị giới hạn bởi rate-limit-per-second. Hàng đợi đầy thì từ chối yêu cầu mới (503)
+// để outbox của order-service thử lại sau. Hàng đợi chỉ nằm trong bộ nhớ: email đã được nhận (202) sẽ bị mất nếu
+// nhà cung cấp từ chối nó, nếu hết max-attempts lần thử, hoặc nếu service dừng trước khi gửi xong
+// (order-service đã đánh dấu sự kiện là đã gửi nên không thử lại). Các email này được đếm ở notification.email.failed.
 @Service
-@RequiredArgsConstructor
 public class NotificationServiceImpl implements NotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationServiceImpl.class);
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
-    private final String resendApiKey = "re_6Z1wL99Y_c3b32g7AoTMWit2a7TMZZpLN";
-    private final String fromEmail = "no-reply@resend.dev";
+    private static final long MAX_BACKOFF_MS = 30000;
+    private static final String ORDER_CONFIRMATION_TEMPLATE = "order-confirmation";
+    private final ProductCache productCache;
+    private final EmailSender emailSender;
+    private final EmailTemplates emailTemplates;
+    private final BlockingQueue<OrderConfirmation> queue;
+    private final RequestRateLimiter rateLimiter;
+    private final int workerCount;
+    private final int batchSize;
+    private final long batchLingerMs;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long shutdownTimeoutMs;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter queueFullCounter;
+    private final Counter shutdownRejectedCounter;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
 
-    @Override
-    public void sendOrderConfirmationEmail(String email, Long orderId, String status, String items, double totalPrice) {
-        try {
-            logger.debug("Bắt đầu gửi email xác nhận cho đơn hàng ID: {} tới email: {}", orderId, email);
+    public NotificationServiceImpl(ProductCache productCache,
+                                   EmailSender emailSender,
+                                   EmailTemplates emailTemplates,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${notification.queue.capacity:10000}") int queueCapacity,
+                                   @Value("${notification.workers:2}") int workerCount,
+                                   @Value("${notification.batch-size:100}") int batchSize,
+                                   @Value("${notification.batch-linger-ms:200}") long batchLingerMs,
+                                   @Value("${notification.rate-limit-per-second:2}") double rateLimitPerSecond,
+                                   @Value("${notification.max-attempts:5}") int maxAttempts,
+                                   @Value("${notification.initial-backoff-ms:1000}") long initialBackoffMs,
+                                   @Value("${notification.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.productCache = productCache;
+        this.emailSender = emailSender;
+        this.emailTemplates = emailTemplates;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.rateLimiter = new RequestRateLimiter(rateLimitPerSecond);
+        this.workerCount = workerCount;
+        this.batchSize = Math.max(1, Math.min(batchSize, emailSender.maxBatchSize()));
+        this.batchLingerMs = batchLingerMs;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        meterRegistry.gaugeCollectionSize("notification.email.queue.size", List.of(), queue);
+        this.sentCounter = meterRegistry.counter("notification.email.sent");
+        this.failedCounter = meterRegistry.counter("notification.email.failed");
+        // Tách theo lý do để phân biệt hàng đợi đầy (quá tải) với từ chối trong lúc service đang dừng
+        this.queueFullCounter = meterRegistry.counter("notification.email.rejected", "reason", "queue_full");
+        this.shutdownRejectedCounter = meterRegistry.counter("notification.email.rejected", "reason", "shutdown");
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "email-worker-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        logger.info("Khởi động {} worker gửi email (batch tối đa {} email)", workerCount, batchSize);
+    }
 
-            // Phân tích items từ JSON
-            List<Map<String, Object>> itemList = new ArrayList<>();
+    // Ngừng nhận yêu cầu mới, cho worker gửi nốt hàng đợi trong shutdown-timeout-ms
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        for (Thread worker : workers) {
             try {
-                itemList = objectMapper.readValue(items, List.class);
-            } catch (Exception e) {
-                logger.warn("Không thể phân tích items: {}, sử dụng thông tin mặc định", items, e);
-                itemList = new ArrayList<>();
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+            worker.interrupt();
+        }
+        workers.clear();
+        if (!queue.isEmpty()) {
+            logger.warn("Dừng service khi còn {} email chưa gửi", queue.size());
+        }
+    }
+
+    @Override
+    public boolean enqueueOrderConfirmationEmail(OrderConfirmation confirmation) {
+        if (!running) {
+            shutdownRejectedCounter.increment();
+            logger.warn("Service đang dừng, từ chối email xác nhận cho đơn hàng ID: {}", confirmation.getOrderId());
+            return false;
+        }
+        if (!queue.offer(confirmation)) {
+            queueFullCounter.increment();
+            logger.warn("Hàng đợi email đầy, từ chối email xác nhận cho đơn hàng ID: {}", confirmation.getOrderId());
+            return false;
+        }
+        logger.debug("Đưa email xác nhận cho đơn hàng ID: {} vào hàng đợi", confirmation.getOrderId());
+        return true;
+    }
 
-            // Lấy thông tin sản phẩm cho từng item
-            StringBuilder itemsDetails = new StringBuilder();
-            for (Map<String, Object> item : itemList) {
-                Long productId = item.get("productId") != null ? ((Number) item.get("productId")).longValue() : null;
-                int quantity = item.get("quantity") != null ? ((Number) item.get("quantity")).intValue() : 0;
+    public int queueSize() {
+        return queue.size();
+    }
 
-                if (productId == null || productId == 0) {
-                    logger.warn("productId không hợp lệ trong item: {}", item);
-                    itemsDetails.append("Sản phẩm không xác định (ID: null), Số lượng: ").append(quantity).append("\n");
+    private void runWorker() {
+        List<OrderConfirmation> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                OrderConfirmation first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
                     continue;
                 }
+                batch.add(first);
+                fillBatch(batch);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!batch.isEmpty()) {
+                    logger.warn("Worker bị dừng, bỏ {} email chưa gửi", batch.size());
+                }
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Gom thêm email đang chờ; chờ tối đa batch-linger-ms để batch không chỉ có một email khi tải thấp
+    private void fillBatch(List<OrderConfirmation> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchLingerMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            OrderConfirmation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void sendBatch(List<OrderConfirmation> batch) throws InterruptedException {
+        List<EmailMessage> messages = new ArrayList<>(batch.size());
+        for (OrderConfirmation confirmation : batch) {
+            try {
+                messages.add(renderOrderConfirmation(confirmation));
+            } catch (Exception e) {
+                logger.error("Lỗi khi tạo email xác nhận cho đơn hàng {}: {}", confirmation.getOrderId(), e.getMessage(), e);
+                failedCounter.increment();
+            }
+        }
+        if (!messages.isEmpty()) {
+            deliver(messages);
+        }
+    }
 
-                try {
-                    String productUrl = "http://product-service:8082/api/products/" + productId;
-                    logger.debug("Gửi yêu cầu lấy thông tin sản phẩm tới: {}", productUrl);
-                    Map<String, Object> product = restTemplate.getForObject(productUrl, Map.class);
-                    if (product != null) {
-                        String productName = (String) product.get("name");
-                        double price = ((Number) product.get("price")).doubleValue();
-                        itemsDetails.append("Sản phẩm: ").append(productName)
-                                .append(", Số lượng: ").append(quantity)
-                                .append(", Giá: $").append(price)
-                                .append("\n");
-                    } else {
-                        logger.warn("Không tìm thấy thông tin sản phẩm với ID: {}", productId);
-                        itemsDetails.append("Sản phẩm không xác định (ID: ").append(productId)
-                                .append("), Số lượng: ").append(quantity).append("\n");
-                    }
-                } catch (Exception e) {
-                    logger.error("Lỗi khi lấy thông tin sản phẩm ID {}: {}", productId, e.getMessage());
-                    itemsDetails.append("Sản phẩm không xác định (ID: ").append(productId)
-                            .append("), Số lượng: ").append(quantity).append("\n");
+    private void deliver(List<EmailMessage> messages) throws InterruptedException {
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                emailSender.sendBatch(messages);
+                sentCounter.increment(messages.size());
+                logger.info("Gửi thành công {} email xác nhận", messages.size());
+                return;
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                long retryAfterMs = retryAfterMs(e, backoffMs);
+                rateLimiter.pause(retryAfterMs);
+                logger.warn("Nhà cung cấp email giới hạn tốc độ, thử lại sau {} ms", retryAfterMs);
+            } catch (HttpClientErrorException e) {
+                // Batch API là tất cả hoặc không: một email sai làm cả batch bị từ chối.
+                // Chia đôi và gửi lại từng nửa để chỉ bỏ đúng email bị từ chối
+                if (messages.size() > 1 && isRejectedMessage(e)) {
+                    logger.warn("Nhà cung cấp email từ chối batch {} email ({}), chia nhỏ để gửi lại",
+                            messages.size(), e.getStatusCode());
+                    int middle = messages.size() / 2;
+                    deliver(messages.subList(0, middle));
+                    deliver(messages.subList(middle, messages.size()));
+                    return;
                 }
+                // Sai API key, hoặc email đơn lẻ bị từ chối: gửi lại cũng không thành công
+                logger.error("Nhà cung cấp email từ chối {} email: {}", messages.size(), e.getMessage());
+                failedCounter.increment(messages.size());
+                return;
+            } catch (RestClientException e) {
+                logger.warn("Lỗi khi gửi {} email (lần {}/{}): {}", messages.size(), attempt, maxAttempts, e.getMessage());
+            }
+
+            if (attempt >= maxAttempts) {
+                logger.error("Bỏ {} email sau {} lần thử", messages.size(), attempt);
+                failedCounter.increment(messages.size());
+                return;
+            }
+            // Jitter để các worker không cùng thử lại một lúc
+            Thread.sleep(backoffMs / 2 + ThreadLocalRandom.current().nextLong(backoffMs / 2 + 1));
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    // 400/422: nội dung email không hợp lệ (ví dụ sai địa chỉ); 401/403 là lỗi cấu hình, chia nhỏ không giúp được
+    private boolean isRejectedMessage(HttpClientErrorException e) {
+        int status = e.getStatusCode().value();
+        return status == 400 || status == 422;
+    }
+
+    private long retryAfterMs(HttpClientErrorException e, long defaultMs) {
+        String retryAfter = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst("Retry-After") : null;
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException ignored) {
+                // Retry-After dạng ngày giờ: dùng backoff mặc định
+            }
+        }
+        return defaultMs;
+    }
+
+    private EmailMessage renderOrderConfirmation(OrderConfirmation confirmation) {
+        Long orderId = confirmation.getOrderId();
+        List<OrderConfirmationItem> items = confirmation.getItems() != null ? confirmation.getItems() : List.of();
+
+        // order-service gửi kèm tên và giá; chỉ các item thiếu tên hoặc giá (yêu cầu cũ) mới cần tra cứu, gộp trong một request
+        Set<Long> missingProductIds = new HashSet<>();
+        for (OrderConfirmationItem item : items) {
+            if ((item.getName() == null || item.getPrice() == null)
+                    && item.getProductId() != null && item.getProductId() != 0) {
+                missingProductIds.add(item.getProductId());
+            }
+        }
+        Map<Long, ProductInfo> products = Map.of();
+        if (!missingProductIds.isEmpty()) {
+            try {
+                products = productCache.getProducts(missingProductIds);
+            } catch (Exception e) {
+                logger.error("Lỗi khi lấy thông tin sản phẩm {}: {}", missingProductIds, e.getMessage());
             }
+        }
 
-            // Tạo nội dung email
-            String subject = "Xác nhận đơn hàng #" + orderId;
-            String text = "Cảm ơn bạn đã đặt hàng!\n" +
-                    "Mã đơn hàng: " + orderId + "\n" +
-                    "Trạng thái: " + status + "\n" +
-                    "Các sản phẩm:\n" + itemsDetails.toString() +
-                    "Tổng giá: $" + totalPrice + "\n" +
-                    "Chúng tôi sẽ thông báo khi đơn hàng được xử lý.";
-
-            // Gửi email qua Resend API
-            String resendUrl = "https://api.resend.com/emails";
-            Map<String, Object> emailPayload = Map.of(
-                    "from", fromEmail,
-                    "to", email,
-                    "subject", subject,
-                    "text", text
-            );
-
-            logger.debug("Gửi yêu cầu tới Resend API: {}", resendUrl);
-            restTemplate.postForEntity(resendUrl,
-                    new HttpEntity<>(emailPayload, new HttpHeaders() {{
-                        set("Authorization", "Bearer " + resendApiKey);
-                        setContentType(MediaType.APPLICATION_JSON);
-                    }}),
-                    String.class);
-
-            logger.info("Gửi email xác nhận thành công cho đơn hàng ID: {}", orderId);
-        } catch (Exception e) {
-            logger.error("Lỗi không xác định khi gửi email xác nhận cho đơn hàng {}: {}", orderId, e.getMessage(), e);
-            throw new RuntimeException("Không thể gửi email xác nhận: " + e.getMessage());
+        OrderConfirmationModel model = new OrderConfirmationModel(orderId, confirmation.getStatus(),
+                confirmation.getTotalPrice());
+        for (OrderConfirmationItem item : items) {
+            Long productId = item.getProductId();
+            if (productId == null || productId == 0) {
+                logger.warn("productId không hợp lệ trong item của đơn hàng: {}", orderId);
+                model.addItem(null, null, item.getQuantity(), null);
+                continue;
+            }
+
+            String name = item.getName();
+            Double price = item.getPrice();
+            ProductInfo product = products.get(productId);
+            // Chỉ bổ sung phần còn thiếu: giá khách đã trả (unitPrice) được giữ dù giá hiện tại trong danh mục đã đổi
+            if (product != null) {
+                if (name == null) {
+                    name = product.getName();
+                }
+                if (price == null) {
+                    price = product.getPrice();
+                }
+            }
+            if (name == null) {
+                logger.warn("Không tìm thấy thông tin sản phẩm với ID: {}", productId);
+            }
+            model.addItem(productId, name, item.getQuantity(), price);
         }
+
+        return emailTemplates.render(ORDER_CONFIRMATION_TEMPLATE, confirmation.getLocale(), model, confirmation.getEmail());
     }
-}
\ No newline at end of file
+}
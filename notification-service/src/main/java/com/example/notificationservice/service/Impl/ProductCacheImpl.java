@@ -0,0 +1,146 @@
+package com.example.notificationservice.service.Impl;
+
+import com.example.notificationservice.dto.ProductAvailability;
+import com.example.notificationservice.dto.ProductChanges;
+import com.example.notificationservice.dto.ProductInfo;
+import com.example.notificationservice.service.ProductCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Cache đọc xuyên (read-through) cho thông tin sản phẩm, giới hạn theo số lượng và thời gian sống.
+// Các mục bị xóa khi product-service báo sản phẩm thay đổi qua GET /api/products/changes.
+// Một lần tải bắt đầu trước khi có lệnh xóa có thể mang tên/giá cũ; kết quả đó chỉ được dùng cho request hiện tại,
+// không được đưa vào cache (nếu không nó sẽ sống thêm cả một TTL sau lệnh xóa).
+@Service
+public class ProductCacheImpl implements ProductCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheImpl.class);
+    private static final String PRODUCT_URL = "http://product-service:8082/api/products/";
+    private static final String PRODUCT_BATCH_URL = PRODUCT_URL + "batch";
+    private final RestTemplate restTemplate;
+    private final Cache<Long, ProductInfo> cache;
+    // Tăng mỗi lần xóa; được đọc khi bắt đầu tải và so lại (dưới cùng khóa với lệnh xóa) trước khi ghi vào cache
+    private final Object invalidationLock = new Object();
+    private long invalidations;
+    private String epoch;
+    private long sequence = -1;
+
+    public ProductCacheImpl(RestTemplate restTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${product.cache.max-size:10000}") long maxSize,
+                            @Value("${product.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.restTemplate = restTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    @Override
+    public Map<Long, ProductInfo> getProducts(Collection<Long> productIds) {
+        Map<Long, ProductInfo> products = new HashMap<>(cache.getAllPresent(productIds));
+        Set<Long> missing = new HashSet<>(productIds);
+        missing.removeAll(products.keySet());
+        if (missing.isEmpty()) {
+            return products;
+        }
+
+        long generation;
+        synchronized (invalidationLock) {
+            generation = invalidations;
+        }
+        Map<Long, ProductInfo> loaded = loadProducts(missing);
+        synchronized (invalidationLock) {
+            if (generation == invalidations) {
+                cache.putAll(loaded);
+            } else {
+                logger.debug("Cache sản phẩm bị xóa trong lúc tải, không lưu {} sản phẩm vừa tải", loaded.size());
+            }
+        }
+        products.putAll(loaded);
+        return products;
+    }
+
+    // Một request POST /api/products/batch cho mọi sản phẩm chưa có trong cache (số lượng 1 chỉ để lấy tên và giá)
+    private Map<Long, ProductInfo> loadProducts(Set<Long> productIds) {
+        List<Map<String, Object>> lines = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            lines.add(Map.of("productId", productId, "quantity", 1));
+        }
+        logger.debug("Gửi yêu cầu lấy thông tin {} sản phẩm tới: {}", lines.size(), PRODUCT_BATCH_URL);
+        ProductAvailability[] availabilities = restTemplate.postForObject(PRODUCT_BATCH_URL, lines,
+                ProductAvailability[].class);
+
+        Map<Long, ProductInfo> products = new HashMap<>();
+        if (availabilities != null) {
+            for (ProductAvailability availability : availabilities) {
+                if (!availability.isFound()) {
+                    logger.warn("Không tìm thấy thông tin sản phẩm với ID: {}", availability.getProductId());
+                    continue;
+                }
+                ProductInfo product = new ProductInfo();
+                product.setId(availability.getProductId());
+                product.setName(availability.getName());
+                product.setPrice(availability.getPrice());
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
+    @Scheduled(fixedDelayString = "${product.cache.invalidation-poll-ms:2000}")
+    public void pollInvalidations() {
+        try {
+            ProductChanges changes = restTemplate.getForObject(PRODUCT_URL + "changes?since=" + sequence,
+                    ProductChanges.class);
+            if (changes == null) {
+                return;
+            }
+            if (!changes.getEpoch().equals(epoch) || changes.isReset()) {
+                // product-service khởi động lại hoặc nhật ký thay đổi đã bị cắt: không biết mục nào cũ nên xóa hết
+                invalidate(null);
+                logger.debug("Xóa toàn bộ cache sản phẩm (epoch: {})", changes.getEpoch());
+            } else if (!changes.getProductIds().isEmpty()) {
+                invalidate(changes.getProductIds());
+                logger.debug("Xóa cache của sản phẩm: {}", changes.getProductIds());
+            }
+            epoch = changes.getEpoch();
+            sequence = changes.getSequence();
+        } catch (Exception e) {
+            // Các mục vẫn hết hạn theo TTL khi không liên lạc được product-service
+            logger.warn("Không thể lấy danh sách sản phẩm thay đổi: {}", e.getMessage());
+        }
+    }
+
+    // productIds == null: xóa toàn bộ cache
+    private void invalidate(Set<Long> productIds) {
+        synchronized (invalidationLock) {
+            invalidations++;
+            if (productIds == null) {
+                cache.invalidateAll();
+            } else {
+                cache.invalidateAll(productIds);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.notificationservice.service.Impl;
+
+import java.util.concurrent.TimeUnit;
+
+// Giới hạn số request mỗi giây tới nhà cung cấp email. acquire() chờ tới lượt thay vì từ chối,
+// nên khi gửi chậm lại thì hàng đợi đầy dần và controller bắt đầu trả 503 (backpressure).
+public class RequestRateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeNanos = System.nanoTime();
+
+    public RequestRateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            nextFreeNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    // Nhà cung cấp trả 429: không cấp lượt nào trong khoảng thời gian được yêu cầu
+    public synchronized void pause(long millis) {
+        nextFreeNanos = Math.max(nextFreeNanos, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
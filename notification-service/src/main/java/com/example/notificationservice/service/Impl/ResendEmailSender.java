@@ -0,0 +1,67 @@
+package com.example.notificationservice.service.Impl;
+
+import com.example.notificationservice.dto.EmailMessage;
+import com.example.notificationservice.service.EmailSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Gửi email qua Resend batch API (POST /emails/batch, tối đa 100 email mỗi request)
+@Service
+public class ResendEmailSender implements EmailSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResendEmailSender.class);
+    private static final int MAX_BATCH_SIZE = 100;
+    private final RestTemplate restTemplate;
+    private final String batchUrl;
+    private final String apiKey;
+    private final String fromEmail;
+
+    public ResendEmailSender(RestTemplate restTemplate,
+                             @Value("${resend.api.url:https://api.resend.com}") String apiUrl,
+                             @Value("${resend.api.key}") String apiKey,
+                             @Value("${resend.from.email:no-reply@resend.dev}") String fromEmail) {
+        this.restTemplate = restTemplate;
+        this.batchUrl = apiUrl + "/emails/batch";
+        this.apiKey = apiKey;
+        this.fromEmail = fromEmail;
+    }
+
+    @Override
+    public void sendBatch(List<EmailMessage> messages) {
+        List<Map<String, Object>> payload = new ArrayList<>(messages.size());
+        for (EmailMessage message : messages) {
+            Map<String, Object> email = new LinkedHashMap<>();
+            email.put("from", fromEmail);
+            email.put("to", message.getTo());
+            email.put("subject", message.getSubject());
+            email.put("text", message.getText());
+            if (message.getHtml() != null) {
+                email.put("html", message.getHtml());
+            }
+            payload.add(email);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(apiKey);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        logger.debug("Gửi {} email tới Resend API: {}", messages.size(), batchUrl);
+        restTemplate.postForEntity(batchUrl, new HttpEntity<>(payload, headers), String.class);
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+}
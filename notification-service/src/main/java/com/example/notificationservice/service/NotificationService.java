@@ -1,5 +1,8 @@
 package com.example.notificationservice.service;
 
+import com.example.notificationservice.dto.OrderConfirmation;
+
 public interface NotificationService {
-    void sendOrderConfirmationEmail(String email, Long orderId, String status, String items, double totalPrice);
-}
\ No newline at end of file
+    // Đưa email xác nhận vào hàng đợi để gửi nền; trả về false khi hàng đợi đã đầy
+    boolean enqueueOrderConfirmationEmail(OrderConfirmation confirmation);
+}
@@ -0,0 +1,12 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.ProductInfo;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ProductCache {
+    // Lấy tên và giá của nhiều sản phẩm, ưu tiên bản trong cache; các sản phẩm còn thiếu được lấy bằng một request.
+    // Sản phẩm không tồn tại không có trong kết quả.
+    Map<Long, ProductInfo> getProducts(Collection<Long> productIds);
+}
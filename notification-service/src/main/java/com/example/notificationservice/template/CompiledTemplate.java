@@ -0,0 +1,185 @@
+package com.example.notificationservice.template;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Template đã được phân tích sẵn thành các đoạn tĩnh và chỗ trống, nên mỗi lần render chỉ còn nối chuỗi.
+ * <p>
+ * Cú pháp (một phần của Mustache): {@code {{name}}} chèn giá trị, {@code {{#name}}...{{/name}}} lặp qua
+ * {@link TemplateData#section} hoặc hiển thị khi cờ đúng, {@code {{^name}}...{{/name}}} hiển thị khi section rỗng.
+ * Trong section, biến không có ở phần tử hiện tại được tìm ở dữ liệu bên ngoài. Template HTML tự escape giá trị.
+ */
+public final class CompiledTemplate {
+
+    private final Segment[] segments;
+
+    private CompiledTemplate(List<Segment> segments) {
+        this.segments = segments.toArray(new Segment[0]);
+    }
+
+    public static CompiledTemplate compile(String source, boolean html) {
+        Parser parser = new Parser(source, html);
+        List<Segment> segments = parser.parse(null);
+        return new CompiledTemplate(segments);
+    }
+
+    public void render(TemplateData data, StringBuilder out) {
+        renderAll(segments, data, null, out);
+    }
+
+    private static void renderAll(Segment[] segments, TemplateData data, TemplateData parent, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.render(data, parent, out);
+        }
+    }
+
+    private interface Segment {
+        void render(TemplateData data, TemplateData parent, StringBuilder out);
+    }
+
+    private static final class Literal implements Segment {
+        private final String text;
+
+        private Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(TemplateData data, TemplateData parent, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    private static final class Variable implements Segment {
+        private final String name;
+        private final boolean escapeHtml;
+
+        private Variable(String name, boolean escapeHtml) {
+            this.name = name;
+            this.escapeHtml = escapeHtml;
+        }
+
+        @Override
+        public void render(TemplateData data, TemplateData parent, StringBuilder out) {
+            Object value = data.get(name);
+            if (value == null && parent != null) {
+                value = parent.get(name);
+            }
+            if (value == null) {
+                return;
+            }
+            if (escapeHtml) {
+                appendEscaped(String.valueOf(value), out);
+            } else {
+                out.append(value);
+            }
+        }
+    }
+
+    private static final class Section implements Segment {
+        private final String name;
+        private final boolean inverted;
+        private final Segment[] children;
+
+        private Section(String name, boolean inverted, List<Segment> children) {
+            this.name = name;
+            this.inverted = inverted;
+            this.children = children.toArray(new Segment[0]);
+        }
+
+        @Override
+        public void render(TemplateData data, TemplateData parent, StringBuilder out) {
+            List<? extends TemplateData> elements = data.section(name);
+            if (inverted) {
+                if (elements.isEmpty()) {
+                    renderAll(children, data, parent, out);
+                }
+                return;
+            }
+            for (TemplateData element : elements) {
+                // Cờ trả về chính nó: giữ nguyên phạm vi bên ngoài
+                renderAll(children, element, element == data ? parent : data, out);
+            }
+        }
+    }
+
+    private static void appendEscaped(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&': out.append("&amp;"); break;
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '"': out.append("&quot;"); break;
+                case '\'': out.append("&#39;"); break;
+                default: out.append(c);
+            }
+        }
+    }
+
+    private static final class Parser {
+        private final String source;
+        private final boolean html;
+        private int position;
+
+        private Parser(String source, boolean html) {
+            this.source = source;
+            this.html = html;
+        }
+
+        // Đọc tới hết template hoặc tới thẻ đóng của section đang mở
+        private List<Segment> parse(String openSection) {
+            List<Segment> segments = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            while (position < source.length()) {
+                int open = source.indexOf("{{", position);
+                if (open < 0) {
+                    literal.append(source, position, source.length());
+                    position = source.length();
+                    break;
+                }
+                literal.append(source, position, open);
+                int close = source.indexOf("}}", open + 2);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Thiếu '}}' cho thẻ tại vị trí " + open);
+                }
+                String tag = source.substring(open + 2, close).trim();
+                position = close + 2;
+                if (tag.isEmpty()) {
+                    throw new IllegalArgumentException("Thẻ rỗng tại vị trí " + open);
+                }
+
+                char kind = tag.charAt(0);
+                if (kind == '/') {
+                    String name = tag.substring(1).trim();
+                    if (!name.equals(openSection)) {
+                        throw new IllegalArgumentException("Thẻ đóng {{/" + name + "}} không khớp tại vị trí " + open);
+                    }
+                    flush(literal, segments);
+                    return segments;
+                }
+                flush(literal, segments);
+                if (kind == '#' || kind == '^') {
+                    String name = tag.substring(1).trim();
+                    segments.add(new Section(name, kind == '^', parse(name)));
+                } else {
+                    segments.add(new Variable(tag, html));
+                }
+            }
+            if (openSection != null) {
+                throw new IllegalArgumentException("Thiếu thẻ đóng {{/" + openSection + "}}");
+            }
+            flush(literal, segments);
+            return segments;
+        }
+
+        // Các đoạn tĩnh liền nhau được gộp thành một chuỗi
+        private void flush(StringBuilder literal, List<Segment> segments) {
+            if (literal.length() > 0) {
+                segments.add(new Literal(literal.toString()));
+                literal.setLength(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.notificationservice.template;
+
+import com.example.notificationservice.dto.EmailMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Các template email được đọc và biên dịch một lần khi khởi động, từ classpath:
+// templates/email/{tên}/{ngôn ngữ}/subject.txt, body.txt và body.html. Thiếu file thì service không khởi động được.
+@Component
+public class EmailTemplates {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplates.class);
+    private static final String BASE_PATH = "templates/email/";
+    // Buffer lớn hơn mức này (email bất thường) không được giữ lại cho lần sau
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private final String defaultLocale;
+    private final Map<String, LocalizedTemplate> templates = new HashMap<>();
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    public EmailTemplates(@Value("${notification.templates.names:order-confirmation}") List<String> names,
+                          @Value("${notification.templates.locales:vi,en}") List<String> locales,
+                          @Value("${notification.templates.default-locale:vi}") String defaultLocale) {
+        this.defaultLocale = defaultLocale;
+        for (String name : names) {
+            for (String locale : locales) {
+                String path = BASE_PATH + name + "/" + locale + "/";
+                templates.put(key(name, locale), new LocalizedTemplate(
+                        CompiledTemplate.compile(load(path + "subject.txt"), false),
+                        CompiledTemplate.compile(load(path + "body.txt"), false),
+                        CompiledTemplate.compile(load(path + "body.html"), true)));
+            }
+            if (!templates.containsKey(key(name, defaultLocale))) {
+                throw new IllegalStateException("Thiếu template " + name + " cho ngôn ngữ mặc định " + defaultLocale);
+            }
+        }
+        logger.info("Đã biên dịch {} template email ({})", templates.size(), locales);
+    }
+
+    // Ngôn ngữ không hỗ trợ (hoặc null) dùng ngôn ngữ mặc định; "en-US" được hiểu là "en"
+    public EmailMessage render(String name, String locale, TemplateData data, String to) {
+        LocalizedTemplate template = templates.get(key(name, language(locale)));
+        if (template == null) {
+            template = templates.get(key(name, defaultLocale));
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("Không có template email: " + name);
+        }
+
+        EmailMessage message = new EmailMessage();
+        message.setTo(to);
+        message.setSubject(render(template.subject, data));
+        message.setText(render(template.text, data));
+        message.setHtml(render(template.html, data));
+        return message;
+    }
+
+    private String render(CompiledTemplate template, TemplateData data) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        template.render(data, buffer);
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return result;
+    }
+
+    private String language(String locale) {
+        if (locale == null || locale.isBlank()) {
+            return defaultLocale;
+        }
+        int separator = locale.indexOf('-') >= 0 ? locale.indexOf('-') : locale.indexOf('_');
+        return (separator > 0 ? locale.substring(0, separator) : locale).toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String name, String locale) {
+        return name + "/" + locale;
+    }
+
+    // Bỏ một dấu xuống dòng ở cuối file để nội dung không bị thừa dòng trống
+    private static String load(String path) {
+        try (InputStream in = EmailTemplates.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Không tìm thấy template: " + path);
+            }
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return content.endsWith("\n") ? content.substring(0, content.length() - 1) : content;
+        } catch (IOException e) {
+            throw new IllegalStateException("Không thể đọc template " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static final class LocalizedTemplate {
+        private final CompiledTemplate subject;
+        private final CompiledTemplate text;
+        private final CompiledTemplate html;
+
+        private LocalizedTemplate(CompiledTemplate subject, CompiledTemplate text, CompiledTemplate html) {
+            this.subject = subject;
+            this.text = text;
+            this.html = html;
+        }
+    }
+}
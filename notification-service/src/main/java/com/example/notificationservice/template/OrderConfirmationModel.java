@@ -0,0 +1,77 @@
+package com.example.notificationservice.template;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+// Dữ liệu của template order-confirmation: số tiền được định dạng sẵn với 2 chữ số thập phân
+public class OrderConfirmationModel implements TemplateData {
+
+    private final String orderId;
+    private final String status;
+    private final String totalPrice;
+    private final List<Item> items = new ArrayList<>();
+
+    public OrderConfirmationModel(Long orderId, String status, double totalPrice) {
+        this.orderId = String.valueOf(orderId);
+        this.status = status;
+        this.totalPrice = formatMoney(totalPrice);
+    }
+
+    // name null: sản phẩm không xác định
+    public void addItem(Long productId, String name, int quantity, Double price) {
+        items.add(new Item(productId, name, quantity, price));
+    }
+
+    @Override
+    public Object get(String name) {
+        switch (name) {
+            case "orderId": return orderId;
+            case "status": return status;
+            case "totalPrice": return totalPrice;
+            default: return null;
+        }
+    }
+
+    @Override
+    public List<? extends TemplateData> section(String name) {
+        return "items".equals(name) ? items : List.of();
+    }
+
+    private static String formatMoney(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static final class Item implements TemplateData {
+        private final String productId;
+        private final String name;
+        private final String quantity;
+        private final String price;
+        private final List<Item> known;
+
+        private Item(Long productId, String name, int quantity, Double price) {
+            this.productId = String.valueOf(productId);
+            this.name = name;
+            this.quantity = String.valueOf(quantity);
+            this.price = formatMoney(price != null ? price : 0.0);
+            this.known = name != null ? List.of(this) : List.of();
+        }
+
+        @Override
+        public Object get(String field) {
+            switch (field) {
+                case "productId": return productId;
+                case "name": return name;
+                case "quantity": return quantity;
+                case "price": return price;
+                default: return null;
+            }
+        }
+
+        @Override
+        public List<? extends TemplateData> section(String field) {
+            return "known".equals(field) ? known : List.of();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.notificationservice.template;
+
+import java.util.List;
+
+// Dữ liệu cho một lần render. Các lớp cài đặt trả giá trị theo tên bằng switch, không dùng Map hay reflection.
+public interface TemplateData {
+    // Giá trị của {{name}}; null khi không có
+    Object get(String name);
+
+    // Các phần tử của {{#name}}...{{/name}}: danh sách để lặp, List.of(this) cho cờ đúng, rỗng cho cờ sai
+    default List<? extends TemplateData> section(String name) {
+        return List.of();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.notificationservice.benchmark;
+
+import com.example.notificationservice.dto.EmailMessage;
+import com.example.notificationservice.template.CompiledTemplate;
+import com.example.notificationservice.template.EmailTemplates;
+import com.example.notificationservice.template.OrderConfirmationModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confirmation emails rendered per second:
+ * <ul>
+ *   <li>{@code legacyText}: the previous string concatenation / {@code StringBuilder} code (text body only)</li>
+ *   <li>{@code parseEveryTimeText}: compiling the text template for every message, i.e. no template cache</li>
+ *   <li>{@code compiledText}: the cached text template rendered into a reused buffer</li>
+ *   <li>{@code compiledSubjectTextHtml}: what a send does now, subject + text + HTML via {@link EmailTemplates}</li>
+ * </ul>
+ * Run manually: {@code java -cp <test classpath> com.example.notificationservice.benchmark.EmailRenderBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailRenderBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int itemCount;
+
+    private EmailTemplates templates;
+    private String textSource;
+    private CompiledTemplate textTemplate;
+    private OrderConfirmationModel model;
+    private final StringBuilder buffer = new StringBuilder(4096);
+
+    @Setup
+    public void setUp() throws IOException {
+        templates = new EmailTemplates(List.of("order-confirmation"), List.of("vi", "en"), "vi");
+        try (InputStream in = getClass().getClassLoader()
+                .getResourceAsStream("templates/email/order-confirmation/vi/body.txt")) {
+            textSource = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        textTemplate = CompiledTemplate.compile(textSource, false);
+        model = new OrderConfirmationModel(42L, "CONFIRMED", 123.45);
+        for (int i = 0; i < itemCount; i++) {
+            model.addItem((long) i + 1, "Sản phẩm " + (i + 1), i % 5 + 1, 10.0 + i);
+        }
+    }
+
+    @Benchmark
+    public String legacyText() {
+        StringBuilder itemsDetails = new StringBuilder();
+        for (int i = 0; i < itemCount; i++) {
+            itemsDetails.append("Sản phẩm: ").append("Sản phẩm " + (i + 1))
+                    .append(", Số lượng: ").append(i % 5 + 1)
+                    .append(", Giá: $").append(10.0 + i)
+                    .append("\n");
+        }
+        Long orderId = 42L;
+        return "Cảm ơn bạn đã đặt hàng!\n" +
+                "Mã đơn hàng: " + orderId + "\n" +
+                "Trạng thái: " + "CONFIRMED" + "\n" +
+                "Các sản phẩm:\n" + itemsDetails.toString() +
+                "Tổng giá: $" + 123.45 + "\n" +
+                "Chúng tôi sẽ thông báo khi đơn hàng được xử lý.";
+    }
+
+    @Benchmark
+    public String parseEveryTimeText() {
+        buffer.setLength(0);
+        CompiledTemplate.compile(textSource, false).render(model, buffer);
+        return buffer.toString();
+    }
+
+    @Benchmark
+    public String compiledText() {
+        buffer.setLength(0);
+        textTemplate.render(model, buffer);
+        return buffer.toString();
+    }
+
+    @Benchmark
+    public EmailMessage compiledSubjectTextHtml() {
+        return templates.render("order-confirmation", "vi", model, "customer@example.com");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EmailRenderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.notificationservice.benchmark;
+
+import com.example.notificationservice.controller.NotificationController;
+import com.example.notificationservice.dto.OrderConfirmation;
+import com.example.notificationservice.dto.OrderConfirmationItem;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one order confirmation crossing the order-service → notification-service boundary:
+ * the sender serializes the body and the receiver reads it back into something it can render.
+ * <ul>
+ *   <li>{@code legacy}: items serialized to a JSON string, embedded in the JSON body, then parsed again
+ *       into {@code List<Map<String, Object>>} (the old {@code POST /api/notifications/email} path)</li>
+ *   <li>{@code typed}: the v2 contract, items are a nested JSON array bound straight to item DTOs</li>
+ * </ul>
+ * Allocation per operation is reported by the GC profiler as {@code gc.alloc.rate.norm}. Run manually:
+ * {@code java -cp <test classpath> com.example.notificationservice.benchmark.NotificationPayloadBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationPayloadBenchmark {
+
+    private static final TypeReference<List<Map<String, Object>>> MAP_LIST = new TypeReference<>() {};
+
+    @Param({"1", "10", "50"})
+    public int itemCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<OrderConfirmationItem> items;
+    private byte[] legacyBody;
+    private byte[] typedBody;
+
+    @Setup
+    public void setUp() throws Exception {
+        items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new OrderConfirmationItem((long) i + 1, "Sản phẩm " + (i + 1), i % 5 + 1, 10.0 + i));
+        }
+        legacyBody = serializeLegacy();
+        typedBody = serializeTyped();
+    }
+
+    @Benchmark
+    public byte[] legacySerialize() throws Exception {
+        return serializeLegacy();
+    }
+
+    @Benchmark
+    public byte[] typedSerialize() throws Exception {
+        return serializeTyped();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> legacyDeserialize() throws Exception {
+        NotificationController.EmailRequest request =
+                objectMapper.readValue(legacyBody, NotificationController.EmailRequest.class);
+        return objectMapper.readValue(request.getItems(), MAP_LIST);
+    }
+
+    @Benchmark
+    public OrderConfirmation typedDeserialize() throws Exception {
+        return objectMapper.readValue(typedBody, OrderConfirmation.class);
+    }
+
+    private byte[] serializeLegacy() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("email", "customer@example.com");
+        body.put("orderId", 42L);
+        body.put("status", "CONFIRMED");
+        body.put("items", objectMapper.writeValueAsString(items));
+        body.put("totalPrice", 123.45);
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    private byte[] serializeTyped() throws Exception {
+        return objectMapper.writeValueAsBytes(
+                new OrderConfirmation("customer@example.com", 42L, "CONFIRMED", items, 123.45));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(NotificationPayloadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.notificationservice.service.Impl;
+
+import com.example.notificationservice.dto.OrderConfirmation;
+import com.example.notificationservice.dto.OrderConfirmationItem;
+import com.example.notificationservice.dto.ProductInfo;
+import com.example.notificationservice.service.ProductCache;
+import com.example.notificationservice.template.EmailTemplates;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Chạy với một HTTP server cục bộ giả lập Resend API
+class NotificationServiceImplTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> batches = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private final AtomicInteger rateLimitedResponses = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EmailTemplates templates = new EmailTemplates(List.of("order-confirmation"), List.of("vi", "en"), "vi");
+    private HttpServer provider;
+    private NotificationServiceImpl service;
+
+    @BeforeEach
+    void startProvider() throws IOException {
+        provider = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        provider.createContext("/emails/batch", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if (rateLimitedResponses.getAndDecrement() > 0) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                exchange.sendResponseHeaders(429, -1);
+                exchange.close();
+                return;
+            }
+            // Giống Resend: một địa chỉ bị từ chối làm cả batch bị từ chối
+            if (new String(body, StandardCharsets.UTF_8).contains("rejected@")) {
+                exchange.sendResponseHeaders(422, -1);
+                exchange.close();
+                return;
+            }
+            batches.add(objectMapper.readTree(body));
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            byte[] response = "{\"data\":[]}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        provider.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (service != null) {
+            service.stop();
+        }
+        provider.stop(0);
+    }
+
+    @Test
+    void sendsQueuedEmailsInOneBatchRequest() throws InterruptedException {
+        service = newService(100, 1, 500);
+        service.start();
+
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            assertTrue(service.enqueueOrderConfirmationEmail(confirmation(orderId)));
+        }
+
+        awaitTrue(() -> meterRegistry.counter("notification.email.sent").count() == 5);
+        assertEquals(1, batches.size());
+        JsonNode batch = batches.get(0);
+        assertEquals(5, batch.size());
+        assertEquals("customer1@example.com", batch.get(0).get("to").asText());
+        assertEquals("no-reply@test.dev", batch.get(0).get("from").asText());
+        assertEquals("Xác nhận đơn hàng #1", batch.get(0).get("subject").asText());
+        assertEquals("Bearer test-key", authorizations.get(0));
+    }
+
+    @Test
+    void retriesWhenProviderIsRateLimiting() throws InterruptedException {
+        rateLimitedResponses.set(1);
+        service = newService(100, 1, 0);
+        service.start();
+
+        assertTrue(service.enqueueOrderConfirmationEmail(confirmation(1L)));
+
+        awaitTrue(() -> meterRegistry.counter("notification.email.sent").count() == 1);
+        assertEquals(1, batches.size());
+        assertEquals(0, meterRegistry.counter("notification.email.failed").count());
+    }
+
+    @Test
+    void dropsOnlyTheMessageRejectedByProvider() throws InterruptedException {
+        service = newService(100, 1, 500);
+        service.start();
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            assertTrue(service.enqueueOrderConfirmationEmail(confirmation(orderId)));
+        }
+        assertTrue(service.enqueueOrderConfirmationEmail(
+                new OrderConfirmation("rejected@example.com", 6L, "CONFIRMED", List.of(), 20.0)));
+
+        awaitTrue(() -> meterRegistry.counter("notification.email.sent").count()
+                + meterRegistry.counter("notification.email.failed").count() == 6);
+        assertEquals(5, meterRegistry.counter("notification.email.sent").count());
+        assertEquals(1, meterRegistry.counter("notification.email.failed").count());
+        long delivered = batches.stream().mapToLong(JsonNode::size).sum();
+        assertEquals(5, delivered);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        service = newService(2, 0, 0);
+        service.start();
+
+        assertTrue(service.enqueueOrderConfirmationEmail(confirmation(1L)));
+        assertTrue(service.enqueueOrderConfirmationEmail(confirmation(2L)));
+        assertFalse(service.enqueueOrderConfirmationEmail(confirmation(3L)));
+        assertEquals(2, service.queueSize());
+        assertEquals(1, meterRegistry.counter("notification.email.rejected", "reason", "queue_full").count());
+    }
+
+    @Test
+    void countsRejectionWhileStoppedSeparatelyFromFullQueue() {
+        service = newService(2, 0, 0);
+
+        assertFalse(service.enqueueOrderConfirmationEmail(confirmation(1L)));
+        assertEquals(1, meterRegistry.counter("notification.email.rejected", "reason", "shutdown").count());
+        assertEquals(0, meterRegistry.counter("notification.email.rejected", "reason", "queue_full").count());
+    }
+
+    @Test
+    void usesEmbeddedProductDetailsAndLooksUpOnlyMissingOnesInOneCall() throws InterruptedException {
+        List<Collection<Long>> lookups = new CopyOnWriteArrayList<>();
+        ProductCache productCache = productIds -> {
+            lookups.add(List.copyOf(productIds));
+            ProductInfo product = new ProductInfo();
+            product.setId(3L);
+            product.setName("Sản phẩm C");
+            product.setPrice(7.5);
+            return Map.of(3L, product);
+        };
+        service = newService(100, 1, 0, productCache);
+        service.start();
+
+        List<OrderConfirmationItem> items = List.of(
+                new OrderConfirmationItem(1L, "Sản phẩm A", 2, 10.0),
+                new OrderConfirmationItem(2L, "Sản phẩm B", 1, 5.0),
+                new OrderConfirmationItem(3L, null, 1, null));
+        assertTrue(service.enqueueOrderConfirmationEmail(
+                new OrderConfirmation("customer@example.com", 1L, "CONFIRMED", items, 32.5)));
+
+        awaitTrue(() -> meterRegistry.counter("notification.email.sent").count() == 1);
+        assertEquals(List.of(List.of(3L)), lookups);
+        String text = batches.get(0).get(0).get("text").asText();
+        assertTrue(text.contains("Sản phẩm: Sản phẩm A, Số lượng: 2, Giá: $10.00"));
+        assertTrue(text.contains("Sản phẩm: Sản phẩm C, Số lượng: 1, Giá: $7.50"));
+    }
+
+    @Test
+    void keepsPaidPriceOfLegacyItemAndFillsOnlyTheName() throws InterruptedException {
+        ProductCache productCache = productIds -> {
+            // Giá trong danh mục đã tăng sau khi khách đặt hàng
+            ProductInfo product = new ProductInfo();
+            product.setId(4L);
+            product.setName("Sản phẩm D");
+            product.setPrice(15.0);
+            return Map.of(4L, product);
+        };
+        service = newService(100, 1, 0, productCache);
+        service.start();
+
+        assertTrue(service.enqueueOrderConfirmationEmail(new OrderConfirmation("customer@example.com", 1L, "CONFIRMED",
+                List.of(new OrderConfirmationItem(4L, null, 1, 12.0)), 12.0)));
+
+        awaitTrue(() -> meterRegistry.counter("notification.email.sent").count() == 1);
+        String text = batches.get(0).get(0).get("text").asText();
+        assertTrue(text.contains("Sản phẩm: Sản phẩm D, Số lượng: 1, Giá: $12.00"));
+    }
+
+    private NotificationServiceImpl newService(int queueCapacity, int workers, long lingerMs) {
+        return newService(queueCapacity, workers, lingerMs, productIds -> Map.of());
+    }
+
+    private NotificationServiceImpl newService(int queueCapacity, int workers, long lingerMs, ProductCache productCache) {
+        String providerUrl = "http://127.0.0.1:" + provider.getAddress().getPort();
+        ResendEmailSender sender = new ResendEmailSender(new RestTemplate(), providerUrl, "test-key", "no-reply@test.dev");
+        return new NotificationServiceImpl(productCache, sender, templates, meterRegistry,
+                queueCapacity, workers, 100, lingerMs, 100, 3, 10, 5000);
+    }
+
+    private OrderConfirmation confirmation(Long orderId) {
+        return new OrderConfirmation("customer" + orderId + "@example.com", orderId, "CONFIRMED", List.of(), 20.0);
+    }
+
+    private void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the email worker");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.notificationservice.service.Impl;
+
+import com.example.notificationservice.dto.ProductInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+// product-service được giả lập bằng MockRestServiceServer
+class ProductCacheImplTest {
+
+    private static final String BATCH_URL = "http://product-service:8082/api/products/batch";
+    private MockRestServiceServer productService;
+    private ProductCacheImpl cache;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        productService = MockRestServiceServer.bindTo(restTemplate).build();
+        cache = new ProductCacheImpl(restTemplate, new SimpleMeterRegistry(), 100, 600);
+    }
+
+    @Test
+    void loadsMissingProductsOnceAndCachesThem() {
+        productService.expect(requestTo(BATCH_URL))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess(batch("Áo sơ mi", 250000), MediaType.APPLICATION_JSON));
+
+        assertEquals("Áo sơ mi", cache.getProducts(List.of(1L)).get(1L).getName());
+        // Lần thứ hai đọc từ cache; một request ngoài dự kiến sẽ làm test lỗi
+        assertEquals("Áo sơ mi", cache.getProducts(List.of(1L)).get(1L).getName());
+
+        productService.verify();
+    }
+
+    @Test
+    void doesNotCacheLoadThatRacedWithInvalidation() {
+        productService.expect(requestTo("http://product-service:8082/api/products/changes?since=-1"))
+                .andRespond(withSuccess(changes(1, ""), MediaType.APPLICATION_JSON));
+        // Sản phẩm đổi giá trong lúc request batch đang chạy: lệnh xóa đến trước khi bản cũ được ghi vào cache
+        productService.expect(requestTo(BATCH_URL))
+                .andRespond(request -> {
+                    cache.pollInvalidations();
+                    return withSuccess(batch("Áo sơ mi", 250000), MediaType.APPLICATION_JSON).createResponse(request);
+                });
+        productService.expect(requestTo("http://product-service:8082/api/products/changes?since=1"))
+                .andRespond(withSuccess(changes(2, "1"), MediaType.APPLICATION_JSON));
+        productService.expect(requestTo(BATCH_URL))
+                .andRespond(withSuccess(batch("Áo sơ mi", 199000), MediaType.APPLICATION_JSON));
+
+        cache.pollInvalidations();
+        Map<Long, ProductInfo> first = cache.getProducts(List.of(1L));
+        Map<Long, ProductInfo> second = cache.getProducts(List.of(1L));
+
+        productService.verify();
+        assertEquals(250000.0, first.get(1L).getPrice());
+        assertEquals(199000.0, second.get(1L).getPrice());
+    }
+
+    private static String batch(String name, double price) {
+        return "[{\"productId\":1,\"found\":true,\"name\":\"" + name + "\",\"price\":" + price + "}]";
+    }
+
+    private static String changes(long sequence, String productIds) {
+        return "{\"epoch\":\"e1\",\"sequence\":" + sequence + ",\"reset\":false,\"productIds\":[" + productIds + "]}";
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.notificationservice.template;
+
+import com.example.notificationservice.dto.EmailMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailTemplatesTest {
+
+    private final EmailTemplates templates = new EmailTemplates(List.of("order-confirmation"), List.of("vi", "en"), "vi");
+
+    @Test
+    void rendersVietnameseTextAndEscapedHtml() {
+        EmailMessage message = templates.render("order-confirmation", null, order(), "customer@example.com");
+
+        assertEquals("customer@example.com", message.getTo());
+        assertEquals("Xác nhận đơn hàng #42", message.getSubject());
+        assertEquals("Cảm ơn bạn đã đặt hàng!\n"
+                + "Mã đơn hàng: 42\n"
+                + "Trạng thái: CONFIRMED\n"
+                + "Các sản phẩm:\n"
+                + "Sản phẩm: Áo <M>, Số lượng: 2, Giá: $10.00\n"
+                + "Sản phẩm không xác định (ID: 3), Số lượng: 1\n"
+                + "Tổng giá: $32.50\n"
+                + "Chúng tôi sẽ thông báo khi đơn hàng được xử lý.", message.getText());
+        assertTrue(message.getHtml().contains("<td>Áo &lt;M&gt;</td>"));
+        assertTrue(message.getHtml().contains("Sản phẩm không xác định (ID: 3)"));
+    }
+
+    @Test
+    void picksLocaleByLanguageAndFallsBackToDefault() {
+        assertEquals("Order confirmation #42",
+                templates.render("order-confirmation", "en-US", order(), "a@example.com").getSubject());
+        assertEquals("Xác nhận đơn hàng #42",
+                templates.render("order-confirmation", "fr", order(), "a@example.com").getSubject());
+    }
+
+    @Test
+    void rejectsUnbalancedSections() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("{{#items}}x", false));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("{{#items}}x{{/known}}", false));
+    }
+
+    private OrderConfirmationModel order() {
+        OrderConfirmationModel model = new OrderConfirmationModel(42L, "CONFIRMED", 32.5);
+        model.addItem(1L, "Áo <M>", 2, 10.0);
+        model.addItem(3L, null, 1, null);
+        return model;
+    }
+}
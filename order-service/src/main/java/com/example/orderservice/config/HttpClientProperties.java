@@ -0,0 +1,76 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Settings of the pooled HTTP client shared by all inter-service calls (prefix "http.client")
+@ConfigurationProperties(prefix = "http.client")
+public class HttpClientProperties {
+    private int maxTotal = 200;
+    private int maxPerRoute = 50;
+    // Per-route limits keyed by "host:port", e.g. http.client.max-per-route-overrides[product-service:8082]=100
+    private Map<String, Integer> maxPerRouteOverrides = new HashMap<>();
+    // Connect/read timeouts are set per downstream, see ResilienceProperties
+    private int connectionRequestTimeoutMs = 2000;
+    private long keepAliveMs = 30000;
+    private long idleTimeoutMs = 60000;
+    private int validateAfterInactivityMs = 2000;
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public Map<String, Integer> getMaxPerRouteOverrides() {
+        return maxPerRouteOverrides;
+    }
+
+    public void setMaxPerRouteOverrides(Map<String, Integer> maxPerRouteOverrides) {
+        this.maxPerRouteOverrides = maxPerRouteOverrides;
+    }
+
+    public int getConnectionRequestTimeoutMs() {
+        return connectionRequestTimeoutMs;
+    }
+
+    public void setConnectionRequestTimeoutMs(int connectionRequestTimeoutMs) {
+        this.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+    }
+
+    public long getKeepAliveMs() {
+        return keepAliveMs;
+    }
+
+    public void setKeepAliveMs(long keepAliveMs) {
+        this.keepAliveMs = keepAliveMs;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public int getValidateAfterInactivityMs() {
+        return validateAfterInactivityMs;
+    }
+
+    public void setValidateAfterInactivityMs(int validateAfterInactivityMs) {
+        this.validateAfterInactivityMs = validateAfterInactivityMs;
+    }
+}
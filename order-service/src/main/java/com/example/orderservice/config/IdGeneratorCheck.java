@@ -0,0 +1,50 @@
+package com.example.orderservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Order, OrderItem and OutboxEvent take their ids from the pooled id_generator table (allocationSize 50): a row holding V
+// hands out V-49..V next. ddl-auto only creates the table empty, and Hibernate then seeds each row at 1, so on a database
+// that already has orders every insert would hit a duplicate key. Fail at startup (after Hibernate updated the schema)
+// unless each row is far enough above MAX(id); db-init/migrate-id-generator.sql seeds it.
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorCheck implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorCheck.class);
+    private static final int ALLOCATION_SIZE = 50;
+    // sequence_name -> table whose ids it generates
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "orders", "orders",
+            "order_items", "order_items",
+            "order_outbox", "order_outbox");
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorCheck(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (Map.Entry<String, String> sequence : SEQUENCES.entrySet()) {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(id), 0) FROM " + sequence.getValue(), Long.class);
+            List<Long> nextVal = jdbcTemplate.queryForList(
+                    "SELECT next_val FROM id_generator WHERE sequence_name = ?", Long.class, sequence.getKey());
+            long max = maxId == null ? 0 : maxId;
+            if (nextVal.isEmpty() ? max > 0 : nextVal.get(0) - (ALLOCATION_SIZE - 1) <= max) {
+                throw new IllegalStateException("id_generator." + sequence.getKey() + " = "
+                        + (nextVal.isEmpty() ? "null" : nextVal.get(0)) + " would reuse ids of " + sequence.getValue()
+                        + " (MAX(id) = " + max + "); run db-init/migrate-id-generator.sql before starting Order Service");
+            }
+            logger.debug("id_generator.{} is above MAX(id) = {} of {}", sequence.getKey(), max, sequence.getValue());
+        }
+    }
+}
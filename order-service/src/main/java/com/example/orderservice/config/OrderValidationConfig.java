@@ -0,0 +1,31 @@
+package com.example.orderservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class OrderValidationConfig {
+
+    // Bounded pool used to run the user and product checks of an order in parallel.
+    // When the pool and queue are full the check is rejected and the order gets a 503, like a validation timeout;
+    // running it on the request thread instead would drop the parallelism and escape the timeout under load.
+    @Bean
+    public ThreadPoolTaskExecutor orderValidationExecutor(
+            @Value("${order.validation.pool-size:16}") int poolSize,
+            @Value("${order.validation.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-validation-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
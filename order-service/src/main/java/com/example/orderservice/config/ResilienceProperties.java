@@ -0,0 +1,175 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.resilience.Downstream;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Circuit breaker, bulkhead, retry and timeout settings per downstream (prefix "resilience"),
+// keyed by Downstream#getKey, e.g. resilience.downstream.product.read-timeout-ms=3000
+@ConfigurationProperties(prefix = "resilience")
+public class ResilienceProperties {
+    private Map<String, Settings> downstream = new HashMap<>();
+
+    public Map<String, Settings> getDownstream() {
+        return downstream;
+    }
+
+    public void setDownstream(Map<String, Settings> downstream) {
+        this.downstream = downstream;
+    }
+
+    // Downstreams without their own entry use the defaults below
+    public Settings settings(Downstream target) {
+        return downstream.getOrDefault(target.getKey(), new Settings());
+    }
+
+    public static class Settings {
+        // Timeouts of a single HTTP attempt
+        private int connectTimeoutMs = 1000;
+        private int readTimeoutMs = 3000;
+        // Bulkhead: concurrent calls allowed, and how long a caller may wait for a free slot
+        private int maxConcurrentCalls = 25;
+        private long maxWaitMs = 0;
+        // Circuit breaker over a sliding window of the last calls
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private float failureRateThreshold = 50;
+        private long slowCallDurationMs = 2000;
+        private float slowCallRateThreshold = 80;
+        private long openStateWaitMs = 10000;
+        private int halfOpenCalls = 3;
+        // Retry, only for idempotent calls: attempts including the first one, exponential backoff with jitter
+        private int maxAttempts = 2;
+        private long retryBackoffMs = 100;
+        private double retryBackoffJitter = 0.5;
+
+        // Longest an idempotent call can take: bulkhead wait, then per attempt pool lease + connect + read,
+        // plus the backoff between attempts at its maximum jitter
+        public long callBudgetMs(long poolLeaseTimeoutMs) {
+            long budget = maxWaitMs;
+            long backoff = retryBackoffMs;
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                budget += poolLeaseTimeoutMs + connectTimeoutMs + readTimeoutMs;
+                if (attempt < maxAttempts) {
+                    budget += (long) Math.ceil(backoff * (1 + retryBackoffJitter));
+                    backoff *= 2;
+                }
+            }
+            return budget;
+        }
+
+        public int getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(int connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public int getReadTimeoutMs() {
+            return readTimeoutMs;
+        }
+
+        public void setReadTimeoutMs(int readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public long getSlowCallDurationMs() {
+            return slowCallDurationMs;
+        }
+
+        public void setSlowCallDurationMs(long slowCallDurationMs) {
+            this.slowCallDurationMs = slowCallDurationMs;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public long getOpenStateWaitMs() {
+            return openStateWaitMs;
+        }
+
+        public void setOpenStateWaitMs(long openStateWaitMs) {
+            this.openStateWaitMs = openStateWaitMs;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getRetryBackoffMs() {
+            return retryBackoffMs;
+        }
+
+        public void setRetryBackoffMs(long retryBackoffMs) {
+            this.retryBackoffMs = retryBackoffMs;
+        }
+
+        public double getRetryBackoffJitter() {
+            return retryBackoffJitter;
+        }
+
+        public void setRetryBackoffJitter(double retryBackoffJitter) {
+            this.retryBackoffJitter = retryBackoffJitter;
+        }
+    }
+}
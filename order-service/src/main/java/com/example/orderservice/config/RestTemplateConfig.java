@@ -1,14 +1,81 @@
 package com.example.orderservice.config;
 
+import com.example.orderservice.resilience.Downstream;
+import com.example.orderservice.resilience.DownstreamClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
+@EnableConfigurationProperties({HttpClientProperties.class, ResilienceProperties.class})
 public class RestTemplateConfig {
 
+    @Bean(destroyMethod = "close")
+    public MeteredConnectionManager httpConnectionManager(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        MeteredConnectionManager connectionManager = new MeteredConnectionManager(meterRegistry, "order-service");
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity(properties.getValidateAfterInactivityMs());
+        for (Map.Entry<String, Integer> override : properties.getMaxPerRouteOverrides().entrySet()) {
+            String[] hostAndPort = override.getKey().split(":");
+            HttpHost host = hostAndPort.length == 2
+                    ? new HttpHost(hostAndPort[0], Integer.parseInt(hostAndPort[1]))
+                    : new HttpHost(hostAndPort[0]);
+            connectionManager.setMaxPerRoute(new HttpRoute(host), override.getValue());
+        }
+
+        // Leased/available/pending/max gauges per pool
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "order-service").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(MeteredConnectionManager httpConnectionManager, HttpClientProperties properties) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(properties.getConnectionRequestTimeoutMs())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                // Honour a shorter server keep-alive, otherwise keep idle connections for keep-alive-ms
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return serverKeepAlive > 0
+                            ? Math.min(serverKeepAlive, properties.getKeepAliveMs())
+                            : properties.getKeepAliveMs();
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getIdleTimeoutMs(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    // All downstreams share the connection pool; each gets its own timeouts, bulkhead, circuit breaker and retry
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public DownstreamClient downstreamClient(CloseableHttpClient httpClient, ResilienceProperties resilienceProperties,
+                                             MeterRegistry meterRegistry) {
+        Map<Downstream, RestTemplate> restTemplates = new EnumMap<>(Downstream.class);
+        for (Downstream downstream : Downstream.values()) {
+            ResilienceProperties.Settings settings = resilienceProperties.settings(downstream);
+            HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+            requestFactory.setConnectTimeout(settings.getConnectTimeoutMs());
+            requestFactory.setReadTimeout(settings.getReadTimeoutMs());
+            restTemplates.put(downstream, new RestTemplate(requestFactory));
+        }
+        return new DownstreamClient(restTemplates, resilienceProperties, meterRegistry);
     }
 }
@@ -1,22 +1,57 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.dto.OrderHistoryPage;
+import com.example.orderservice.idempotency.IdempotencyStore;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final int MAX_BULK_IDS = 100;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
 
+    // With an Idempotency-Key header, retries of the same request return the first result instead of creating a new order
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody Order order) {
-        Order createdOrder = orderService.createOrder(order);
-        return ResponseEntity.ok(createdOrder);
+    public ResponseEntity<Order> createOrder(
+            @RequestBody Order order,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            Order createdOrder = orderService.createOrder(order);
+            return ResponseEntity.ok(createdOrder);
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+
+        // Keys are scoped per customer; the fingerprint is taken before createOrder mutates the request
+        String key = order.getCustomerUsername() + ":" + idempotencyKey;
+        IdempotencyStore.Result<Order> result = idempotencyStore.execute(
+                key, fingerprint(order), () -> orderService.createOrder(order));
+        return ResponseEntity.ok()
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.isReplayed()))
+                .body(result.getValue());
     }
 
     @GetMapping("/{id}")
@@ -24,4 +59,39 @@ public class OrderController {
         Order order = orderService.getOrderById(id);
         return ResponseEntity.ok(order);
     }
-}
\ No newline at end of file
+
+    // GET /api/orders?ids=1,2,3 - orders with their items, loaded in two queries
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<Order>> getOrdersByIds(@RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BULK_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "ids must contain between 1 and " + MAX_BULK_IDS + " order ids");
+        }
+        return ResponseEntity.ok(orderService.getOrdersByIds(ids));
+    }
+
+    // Newest first; pass nextCursor from the previous page as "cursor" to continue
+    @GetMapping("/by-customer/{username}")
+    public ResponseEntity<OrderHistoryPage> getOrderHistory(
+            @PathVariable String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        try {
+            return ResponseEntity.ok(orderService.getOrderHistory(username, cursor, size));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private String fingerprint(Order order) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsString(order).getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid order request");
+        }
+    }
+}
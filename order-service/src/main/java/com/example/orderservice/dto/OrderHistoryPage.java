@@ -0,0 +1,25 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+// One page of GET /api/orders/by-customer/{username}; nextCursor is null on the last page
+public class OrderHistoryPage {
+    private List<OrderSummary> items;
+    private String nextCursor;
+
+    public List<OrderSummary> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderSummary> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.orderservice.dto;
+
+import java.time.LocalDateTime;
+
+// Read-only projection of an order for the customer history list; no entity or item hydration
+public interface OrderSummary {
+    Long getId();
+
+    double getTotalPrice();
+
+    String getStatus();
+
+    LocalDateTime getDeliveryDate();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,56 @@
+package com.example.orderservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Response of product-service POST /api/products/reserve
+public class StockReservationResult {
+    private boolean success;
+    private List<Line> lines = new ArrayList<>();
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<Line> lines) {
+        this.lines = lines;
+    }
+
+    public static class Line {
+        private Long productId;
+        private int quantity;
+        private String status;
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Long productId) {
+            this.productId = productId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.orderservice.dto;
+
+// Response of user-service GET /api/users/{username}/profile
+public class UserProfile {
+    private String username;
+    private String role;
+    private boolean active;
+    private String email;
+    private boolean permitted;
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public boolean isPermitted() {
+        return permitted;
+    }
+
+    public void setPermitted(boolean permitted) {
+        this.permitted = permitted;
+    }
+}
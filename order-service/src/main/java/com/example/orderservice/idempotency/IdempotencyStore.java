@@ -0,0 +1,160 @@
+package com.example.orderservice.idempotency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory store of results keyed by client-supplied idempotency keys.
+ * <p>
+ * The first request for a key runs the action; concurrent duplicates wait for its result and later
+ * duplicates get the stored result until it expires. Failed attempts are not remembered, so a client
+ * may retry with the same key. Once the store is full the oldest completed entries are evicted first.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long waitTimeoutMs;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyStore(@Value("${order.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${order.idempotency.ttl-ms:86400000}") long ttlMs,
+                            @Value("${order.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    public <T> Result<T> execute(String key, String fingerprint, Supplier<T> action) {
+        while (true) {
+            Entry created = new Entry(fingerprint);
+            Entry existing = entries.putIfAbsent(key, created);
+            if (existing == null) {
+                insertionOrder.add(key);
+                evictExpiredAndOverflow();
+                return new Result<>(run(key, created, action), false);
+            }
+            if (existing.isExpired(System.currentTimeMillis())) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                logger.warn("Idempotency key {} reused with a different request body", key);
+                throw new IdempotencyKeyReusedException(key);
+            }
+            logger.info("Duplicate request for idempotency key {}, returning the original result", key);
+            @SuppressWarnings("unchecked")
+            T value = (T) await(key, existing);
+            return new Result<>(value, true);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private <T> T run(String key, Entry entry, Supplier<T> action) {
+        try {
+            T value = action.get();
+            entry.expiresAt = System.currentTimeMillis() + ttlMs;
+            entry.result.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            // Do not remember failures: the client is expected to retry with the same key
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object await(String key, Entry entry) {
+        try {
+            return entry.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotentRequestInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException(key);
+        } catch (ExecutionException e) {
+            // The duplicate fails the same way the original request did
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // Entries are queued in insertion order, which is also (roughly) expiry order
+    private void evictExpiredAndOverflow() {
+        long now = System.currentTimeMillis();
+        int inFlightSkipped = 0;
+        String key;
+        while ((key = insertionOrder.peek()) != null) {
+            Entry entry = entries.get(key);
+            boolean overflow = entries.size() > maxEntries;
+            if (entry != null && !overflow && !entry.isExpired(now)) {
+                break;
+            }
+            insertionOrder.poll();
+            if (entry == null) {
+                continue;
+            }
+            if (!entry.result.isDone()) {
+                // Never evict a request that is still running; its duplicates are waiting on it
+                insertionOrder.add(key);
+                if (++inFlightSkipped > maxEntries) {
+                    break;
+                }
+                continue;
+            }
+            entries.remove(key, entry);
+        }
+    }
+
+    public static final class Result<T> {
+        private final T value;
+        private final boolean replayed;
+
+        Result(T value, boolean replayed) {
+            this.value = value;
+            this.replayed = replayed;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
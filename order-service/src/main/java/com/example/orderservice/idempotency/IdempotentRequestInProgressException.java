@@ -0,0 +1,12 @@
+package com.example.orderservice.idempotency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "A request with this idempotency key is still being processed")
+public class IdempotentRequestInProgressException extends RuntimeException {
+
+    public IdempotentRequestInProgressException(String key) {
+        super("Request with idempotency key is still being processed: " + key);
+    }
+}
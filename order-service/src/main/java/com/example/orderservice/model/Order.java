@@ -1,5 +1,8 @@
 package com.example.orderservice.model;
 
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+
 import javax.persistence.*;
 // import lombok.Getter;
 // import lombok.Setter;
@@ -9,12 +12,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+// Backs the customer order history: equality on customer, then keyset on (created_at, id)
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_customer_created", columnList = "customer_username, created_at, id")
+})
 // @Getter
 // @Setter
 public class Order {
+    // Ids come from a pooled table generator (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id")
+    @TableGenerator(name = "orders_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
 
     @Column(name = "customer_username", nullable = false)
@@ -45,7 +54,10 @@ public class Order {
     @Transient
     private String customerPhone;
 
-    @Transient
+    // When several orders are loaded, the items of all of them are fetched with a single subselect
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    @Fetch(FetchMode.SUBSELECT)
+    @OrderBy("id ASC")
     private List<OrderItem> items = new ArrayList<>();
     
     // Getter và Setter thủ công
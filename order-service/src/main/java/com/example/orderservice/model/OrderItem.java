@@ -1,5 +1,8 @@
 package com.example.orderservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import javax.persistence.*;
 // import lombok.Getter;
 // import lombok.Setter;
@@ -9,11 +12,20 @@ import javax.persistence.*;
 // @Getter
 // @Setter
 public class OrderItem {
+    // Ids come from a pooled table generator (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_items_id")
+    @TableGenerator(name = "order_items_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "order_items", allocationSize = 50)
     private Long id;
 
-    @Column(name = "order_id", nullable = false)
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    // Read-only copy of the foreign key, so the order id is serialized without touching the association
+    @Column(name = "order_id", insertable = false, updatable = false)
     private Long orderId;
 
     @Column(name = "product_id", nullable = false)
@@ -24,6 +36,11 @@ public class OrderItem {
 
     @Column(name = "unit_price", nullable = false)
     private double unitPrice;
+
+    // Product name returned by the stock check; only known while the order is being created
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String productName;
     
     // Getter và Setter thủ công
     public Long getId() {
@@ -34,8 +51,16 @@ public class OrderItem {
         this.id = id;
     }
 
+    public Order getOrder() {
+        return order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
     public Long getOrderId() {
-        return orderId;
+        return order != null ? order.getId() : orderId;
     }
 
     public void setOrderId(Long orderId) {
@@ -65,4 +90,12 @@ public class OrderItem {
     public void setUnitPrice(double unitPrice) {
         this.unitPrice = unitPrice;
     }
-}
\ No newline at end of file
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.orderservice.model;
+
+// Side effects of an order that are delivered after the order transaction commits
+public enum OutboxEventType {
+    SAVE_CUSTOMER_INFO,
+    CLEAR_CART,
+    ORDER_CONFIRMATION_EMAIL
+}
@@ -0,0 +1,7 @@
+package com.example.orderservice.model;
+
+public enum OutboxStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
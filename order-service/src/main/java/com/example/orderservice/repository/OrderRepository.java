@@ -1,10 +1,43 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.dto.OrderSummary;
 import com.example.orderservice.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Order and its items in one query
+    @Query("select distinct o from Order o left join fetch o.items where o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    // Items are loaded afterwards by one subselect for all returned orders (see Order.items)
+    List<Order> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    // Newest orders of a customer, first page (index idx_orders_customer_created)
+    @Query("select o.id as id, o.totalPrice as totalPrice, o.status as status, " +
+            "o.deliveryDate as deliveryDate, o.createdAt as createdAt " +
+            "from Order o where o.customerUsername = :username " +
+            "order by o.createdAt desc, o.id desc")
+    List<OrderSummary> findHistory(@Param("username") String username, Pageable pageable);
+
+    // Following pages: orders strictly after the (createdAt, id) cursor in the same ordering
+    @Query("select o.id as id, o.totalPrice as totalPrice, o.status as status, " +
+            "o.deliveryDate as deliveryDate, o.createdAt as createdAt " +
+            "from Order o where o.customerUsername = :username " +
+            "and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id)) " +
+            "order by o.createdAt desc, o.id desc")
+    List<OrderSummary> findHistoryBefore(@Param("username") String username,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
 }
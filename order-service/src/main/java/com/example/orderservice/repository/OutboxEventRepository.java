@@ -0,0 +1,56 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.model.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Marks up to :limit due events with the batch token so concurrent dispatchers never pick the same rows
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE order_outbox SET claimed_by = :token, claimed_until = :until " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "AND (claimed_until IS NULL OR claimed_until < :now) " +
+            "ORDER BY id LIMIT :limit", nativeQuery = true)
+    int claimBatch(@Param("token") String token,
+                   @Param("now") LocalDateTime now,
+                   @Param("until") LocalDateTime until,
+                   @Param("limit") int limit);
+
+    List<OutboxEvent> findByClaimedByOrderByIdAsc(String claimedBy);
+
+    // Extends the lease of the events of a batch that are still claimed by it; returns how many are left
+    @Transactional
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = :until where e.claimedBy = :token")
+    int renewClaim(@Param("token") String token, @Param("until") LocalDateTime until);
+
+    // Writes the outcome of one event and releases it, unless another dispatcher reclaimed it after the lease expired
+    @Transactional
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :lastError, e.updatedAt = :updatedAt, e.claimedBy = null, e.claimedUntil = null " +
+            "where e.id = :id and e.claimedBy = :token")
+    int release(@Param("id") Long id,
+                @Param("token") String token,
+                @Param("status") OutboxStatus status,
+                @Param("attempts") int attempts,
+                @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                @Param("lastError") String lastError,
+                @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = :status and e.updatedAt < :before")
+    int deleteByStatusUpdatedBefore(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,20 @@
+package com.example.orderservice.resilience;
+
+// Services order-service calls; each one gets its own circuit breaker, bulkhead, retry and timeouts
+public enum Downstream {
+    USER("user"),
+    PRODUCT("product"),
+    CART("cart"),
+    NOTIFICATION("notification");
+
+    private final String key;
+
+    Downstream(String key) {
+        this.key = key;
+    }
+
+    // Name used in configuration (resilience.downstream.<key>.*) and in metric tags
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.orderservice.resilience;
+
+import com.example.orderservice.config.ResilienceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Entry point for every HTTP call to user/product/cart/notification services.
+// Each downstream has its own RestTemplate (connect/read timeouts), a semaphore bulkhead so a slow service
+// cannot hold every request thread, and a circuit breaker that fails fast while the service is unhealthy.
+// Idempotent calls are additionally retried on timeouts and 5xx responses with jittered backoff.
+public class DownstreamClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownstreamClient.class);
+    private final Map<Downstream, RestTemplate> restTemplates;
+    private final Map<Downstream, Bulkhead> bulkheads = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, CircuitBreaker> circuitBreakers = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, Retry> retries = new EnumMap<>(Downstream.class);
+
+    public DownstreamClient(Map<Downstream, RestTemplate> restTemplates, ResilienceProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.restTemplates = new EnumMap<>(restTemplates);
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        RetryRegistry retryRegistry = RetryRegistry.ofDefaults();
+
+        // resilience4j.circuitbreaker.state / .calls, resilience4j.bulkhead.available.concurrent.calls,
+        // resilience4j.retry.calls, tagged with name=<downstream key>
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedRetryMetrics.ofRetryRegistry(retryRegistry).bindTo(meterRegistry);
+
+        for (Downstream downstream : Downstream.values()) {
+            if (!this.restTemplates.containsKey(downstream)) {
+                throw new IllegalArgumentException("No RestTemplate configured for " + downstream.getKey());
+            }
+            ResilienceProperties.Settings settings = properties.settings(downstream);
+            String name = downstream.getKey();
+
+            bulkheads.put(downstream, bulkheadRegistry.bulkhead(name, BulkheadConfig.custom()
+                    .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                    .maxWaitDuration(Duration.ofMillis(settings.getMaxWaitMs()))
+                    .build()));
+
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name, CircuitBreakerConfig.custom()
+                    .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                    .slidingWindowSize(settings.getSlidingWindowSize())
+                    .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                    .failureRateThreshold(settings.getFailureRateThreshold())
+                    .slowCallDurationThreshold(Duration.ofMillis(settings.getSlowCallDurationMs()))
+                    .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                    .waitDurationInOpenState(Duration.ofMillis(settings.getOpenStateWaitMs()))
+                    .permittedNumberOfCallsInHalfOpenState(settings.getHalfOpenCalls())
+                    // A 4xx is an answer from a healthy service; a full bulkhead says nothing about the downstream
+                    .ignoreExceptions(HttpClientErrorException.class, BulkheadFullException.class)
+                    .build());
+            circuitBreaker.getEventPublisher().onStateTransition(event ->
+                    logger.warn("Circuit breaker for {}-service: {}", name, event.getStateTransition()));
+            circuitBreakers.put(downstream, circuitBreaker);
+
+            retries.put(downstream, retryRegistry.retry(name, RetryConfig.custom()
+                    .maxAttempts(settings.getMaxAttempts())
+                    .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(
+                            Duration.ofMillis(settings.getRetryBackoffMs()), 2.0, settings.getRetryBackoffJitter()))
+                    // Timeouts, connection failures and 5xx only; never a rejected call or a 4xx
+                    .retryOnException(error -> error instanceof ResourceAccessException
+                            || error instanceof HttpServerErrorException)
+                    .build()));
+        }
+    }
+
+    /**
+     * Runs {@code request} against the downstream's RestTemplate. Only pass {@code idempotent = true} for calls
+     * that can safely be sent twice (reads, deletes); anything else is attempted once.
+     *
+     * @throws DownstreamUnavailableException when the circuit is open or the bulkhead is full
+     */
+    public <T> T call(Downstream downstream, boolean idempotent, Function<RestTemplate, T> request) {
+        RestTemplate restTemplate = restTemplates.get(downstream);
+        // Retry(CircuitBreaker(Bulkhead(request))): every attempt is limited and counted by the breaker
+        Supplier<T> call = Bulkhead.decorateSupplier(bulkheads.get(downstream), () -> request.apply(restTemplate));
+        call = CircuitBreaker.decorateSupplier(circuitBreakers.get(downstream), call);
+        if (idempotent) {
+            call = Retry.decorateSupplier(retries.get(downstream), call);
+        }
+
+        try {
+            return call.get();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            logger.warn("Rejected call to {}-service: {}", downstream.getKey(), e.getMessage());
+            throw new DownstreamUnavailableException(downstream, e);
+        }
+    }
+
+    public CircuitBreaker.State getState(Downstream downstream) {
+        return circuitBreakers.get(downstream).getState();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.orderservice.resilience;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The call was not attempted: the downstream's circuit is open or its bulkhead is full
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "A required service is temporarily unavailable")
+public class DownstreamUnavailableException extends RuntimeException {
+
+    public DownstreamUnavailableException(Downstream downstream, Throwable cause) {
+        super(downstream.getKey() + "-service is unavailable: " + cause.getMessage(), cause);
+    }
+}
@@ -1,11 +1,20 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.dto.OrderHistoryPage;
 import com.example.orderservice.model.Order;
 
+import java.util.List;
+
 public interface OrderService {
     // Tạo đơn hàng mới
     Order createOrder(Order order);
 
     // Lấy thông tin đơn hàng theo ID
     Order getOrderById(Long orderId);
-}
\ No newline at end of file
+
+    // Lấy nhiều đơn hàng cùng các dòng hàng (hai truy vấn cho cả danh sách)
+    List<Order> getOrdersByIds(List<Long> orderIds);
+
+    // Lịch sử đơn hàng của khách hàng, mới nhất trước, phân trang bằng cursor (createdAt, id)
+    OrderHistoryPage getOrderHistory(String username, String cursor, int size);
+}
@@ -1,22 +1,53 @@
 package com.example.orderservice.service.impl;
 
+import com.example.orderservice.config.HttpClientProperties;
+import com.example.orderservice.config.ResilienceProperties;
+import com.example.orderservice.dto.OrderHistoryPage;
+import com.example.orderservice.dto.OrderSummary;
+import com.example.orderservice.dto.ProductAvailability;
+import com.example.orderservice.dto.StockReservationResult;
+import com.example.orderservice.dto.UserProfile;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.OrderItem;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.model.OutboxEventType;
+import com.example.orderservice.model.OutboxStatus;
 import com.example.orderservice.repository.OrderRepository;
-import com.example.orderservice.repository.OrderItemRepository;
+import com.example.orderservice.repository.OutboxEventRepository;
+import com.example.orderservice.resilience.Downstream;
+import com.example.orderservice.resilience.DownstreamClient;
+import com.example.orderservice.resilience.DownstreamUnavailableException;
 import com.example.orderservice.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,9 +55,30 @@ public class OrderServiceImpl implements OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
     private final OrderRepository orderRepository;
-    private final OrderItemRepository orderItemRepository;
-    private final RestTemplate restTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final DownstreamClient downstreamClient;
     private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor orderValidationExecutor;
+    private final ResilienceProperties resilienceProperties;
+    private final HttpClientProperties httpClientProperties;
+
+    @Value("${order.validation.timeout-ms:5000}")
+    private long validationTimeoutMs;
+
+    // The validation timeout must outlast the user and product calls including their retries; otherwise it fires
+    // while a retry is still running and leaves the call holding its bulkhead permit and a validation thread
+    @PostConstruct
+    void alignValidationTimeout() {
+        long poolLeaseMs = httpClientProperties.getConnectionRequestTimeoutMs();
+        long callBudgetMs = Math.max(
+                resilienceProperties.settings(Downstream.USER).callBudgetMs(poolLeaseMs),
+                resilienceProperties.settings(Downstream.PRODUCT).callBudgetMs(poolLeaseMs));
+        if (validationTimeoutMs <= callBudgetMs) {
+            logger.info("Raising order.validation.timeout-ms from {} to {} ms to cover user/product retries",
+                    validationTimeoutMs, callBudgetMs + 500);
+            validationTimeoutMs = callBudgetMs + 500;
+        }
+    }
 
     @Override
     @Transactional
@@ -35,19 +87,17 @@ public class OrderServiceImpl implements OrderService {
             // 1. Validate order request
             validateOrderRequest(order);
             
-            // 2. Verify user account
-            verifyUserAccount(order.getCustomerUsername());
-            
-            // 3. Calculate total price and verify product availability
-            double totalPrice = calculateTotalAndVerifyProducts(order);
-            order.setTotalPrice(totalPrice);
+            // 2 + 3. Verify user account, calculate total price and verify product availability in parallel
+            UserProfile customer = verifyUserAndProducts(order);
 
             // 4. Save order with initial status
             Order savedOrder = saveInitialOrder(order);
             
-            // 5. Try to update product inventory
+            // 5. Reserve product inventory for all lines at once
             try {
                 updateProductInventory(order);
+            } catch (DownstreamUnavailableException e) {
+                throw e;
             } catch (Exception e) {
                 // Rollback already handled by @Transactional
                 logger.error("Failed to update product inventory: {}", e.getMessage(), e);
@@ -58,26 +108,18 @@ public class OrderServiceImpl implements OrderService {
             savedOrder.setStatus("CONFIRMED");
             savedOrder = orderRepository.save(savedOrder);
             
-            // 7. Asynchronously process non-critical operations 
-            // These operations should not affect the order placement transaction
-            try {
-                // Save customer information (non-critical)
-                saveCustomerInfo(order);
-                
-                // Remove items from cart (non-critical)
-                removeItemsFromCart(order);
-                
-                // Send confirmation email (non-critical)
-                sendOrderConfirmationEmail(savedOrder);
-            } catch (Exception e) {
-                // Log but don't fail the transaction for non-critical operations
-                logger.warn("Non-critical post-order operations failed: {}", e.getMessage(), e);
-            }
+            // 7. Record non-critical post-order operations in the outbox.
+            // They are delivered by OutboxDispatcher once this transaction commits.
+            enqueuePostOrderEvents(savedOrder, customer);
 
             return savedOrder;
         } catch (IllegalArgumentException | IllegalStateException e) {
             logger.error("Business error creating order: {}", e.getMessage(), e);
             throw e;
+        } catch (DownstreamUnavailableException e) {
+            // Circuit open or bulkhead full: fail fast with 503 so the client can retry later
+            logger.warn("Cannot create order, {}", e.getMessage());
+            throw e;
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             logger.error("API error: {}", e.getMessage(), e);
             throw new RuntimeException("API error: " + e.getMessage());
@@ -107,59 +149,138 @@ public class OrderServiceImpl implements OrderService {
         }
     }
     
-    private void verifyUserAccount(String username) {
-        String userPermissionUrl = "http://user-service:8083/api/users/" + username + "/permission";
-        logger.debug("Sending permission verification request to: {}", userPermissionUrl);
-        
-        Boolean isUserValid = restTemplate.getForObject(userPermissionUrl, Boolean.class);
-        if (isUserValid == null || !isUserValid) {
+    // Sets the order total and returns the customer's profile
+    private UserProfile verifyUserAndProducts(Order order) {
+        CompletableFuture<UserProfile> userCheck;
+        try {
+            userCheck = CompletableFuture.supplyAsync(
+                    () -> verifyUserAccount(order.getCustomerUsername()), orderValidationExecutor);
+        } catch (RejectedExecutionException e) {
+            throw validationPoolFull(Downstream.USER, e);
+        }
+        CompletableFuture<Double> productCheck;
+        try {
+            productCheck = CompletableFuture.supplyAsync(
+                    () -> calculateTotalAndVerifyProducts(order), orderValidationExecutor);
+        } catch (RejectedExecutionException e) {
+            userCheck.cancel(true);
+            throw validationPoolFull(Downstream.PRODUCT, e);
+        }
+
+        // Fail as soon as either check fails instead of waiting for the slower one
+        CompletableFuture<Void> allChecks = CompletableFuture.allOf(userCheck, productCheck);
+        userCheck.whenComplete((result, error) -> {
+            if (error != null) {
+                allChecks.completeExceptionally(error);
+            }
+        });
+        productCheck.whenComplete((result, error) -> {
+            if (error != null) {
+                allChecks.completeExceptionally(error);
+            }
+        });
+
+        try {
+            allChecks.get(validationTimeoutMs, TimeUnit.MILLISECONDS);
+            order.setTotalPrice(productCheck.join());
+            return userCheck.join();
+        } catch (TimeoutException e) {
+            Downstream slowest = productCheck.isDone() ? Downstream.USER : Downstream.PRODUCT;
+            userCheck.cancel(true);
+            productCheck.cancel(true);
+            logger.error("Order validation timed out after {} ms", validationTimeoutMs);
+            // A dependency is too slow: same 503 as an open circuit, so the client retries later
+            throw new DownstreamUnavailableException(slowest,
+                    new TimeoutException("no answer within " + validationTimeoutMs + " ms"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Order validation was interrupted");
+        } catch (ExecutionException | CompletionException e) {
+            throw unwrapValidationError(e);
+        }
+    }
+
+    // Pool and queue are full: answer 503 like a timeout instead of waiting for a free thread
+    private DownstreamUnavailableException validationPoolFull(Downstream downstream, RejectedExecutionException error) {
+        logger.error("Order validation pool is full, rejecting the {} check: {}", downstream.getKey(), error.getMessage());
+        return new DownstreamUnavailableException(downstream,
+                new RejectedExecutionException("order validation pool is full", error));
+    }
+
+    private RuntimeException unwrapValidationError(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new RuntimeException("Order validation failed: " + cause.getMessage(), cause);
+    }
+    
+    // One call returns both the permission decision and the email used for the confirmation
+    private UserProfile verifyUserAccount(String username) {
+        String userProfileUrl = "http://user-service:8083/api/users/" + username + "/profile";
+        logger.debug("Sending permission verification request to: {}", userProfileUrl);
+
+        UserProfile profile;
+        try {
+            profile = downstreamClient.call(Downstream.USER, true,
+                    rest -> rest.getForObject(userProfileUrl, UserProfile.class));
+        } catch (HttpClientErrorException.NotFound e) {
+            profile = null;
+        }
+        if (profile == null || !profile.isPermitted()) {
             logger.warn("Invalid account or insufficient permissions: {}", username);
             throw new IllegalArgumentException("Invalid account or insufficient permissions");
         }
+        return profile;
     }
     
     private double calculateTotalAndVerifyProducts(Order order) {
-        double totalPrice = 0.0;
-        
+        List<Map<String, Object>> checkRequest = new ArrayList<>(order.getItems().size());
         for (OrderItem item : order.getItems()) {
             if (item.getProductId() == null) {
                 logger.warn("Found item with null productId");
                 throw new IllegalArgumentException("productId cannot be null");
             }
-            
-            // Get product information
-            String productUrl = "http://product-service:8082/api/products/" + item.getProductId();
-            logger.debug("Fetching product information from: {}", productUrl);
-            
-            Map<String, Object> productResponse = restTemplate.getForObject(productUrl, Map.class);
-            if (productResponse == null) {
+            checkRequest.add(Map.of("productId", item.getProductId(), "quantity", item.getQuantity()));
+        }
+
+        // Get price and verify stock for every line in a single call
+        String productBatchUrl = "http://product-service:8082/api/products/batch";
+        logger.debug("Verifying {} order lines with: {}", checkRequest.size(), productBatchUrl);
+
+        // Read-only check, safe to retry
+        ProductAvailability[] availabilities = downstreamClient.call(Downstream.PRODUCT, true,
+                rest -> rest.postForObject(productBatchUrl, checkRequest, ProductAvailability[].class));
+        if (availabilities == null || availabilities.length != order.getItems().size()) {
+            logger.error("Unexpected response from ProductService for order lines: {}", checkRequest);
+            throw new RuntimeException("Error checking inventory for order products");
+        }
+
+        double totalPrice = 0.0;
+        for (int i = 0; i < availabilities.length; i++) {
+            OrderItem item = order.getItems().get(i);
+            ProductAvailability availability = availabilities[i];
+
+            if (!availability.isFound()) {
                 logger.warn("Product not found with ID: {}", item.getProductId());
                 throw new IllegalArgumentException("Product does not exist: " + item.getProductId());
             }
-            
-            double productPrice = ((Number) productResponse.get("price")).doubleValue();
-            item.setUnitPrice(productPrice);
-            totalPrice += productPrice * item.getQuantity();
-            
-            // Verify product stock
-            String productCheckUrl = "http://product-service:8082/api/products/check?productId=" + 
-                    item.getProductId() + "&quantity=" + item.getQuantity();
-            logger.debug("Verifying product stock: {}", productCheckUrl);
-            
-            Map<String, Boolean> productCheckResponse = restTemplate.getForObject(productCheckUrl, Map.class);
-            if (productCheckResponse == null) {
-                logger.error("No response from ProductService for productId: {}", item.getProductId());
-                throw new RuntimeException("Error checking inventory for product: " + item.getProductId());
-            }
-            
-            Boolean isProductAvailable = productCheckResponse.get("isAvailable");
-            if (isProductAvailable == null || !isProductAvailable) {
-                logger.warn("Product not available in requested quantity: {} (required: {})", 
+
+            if (!availability.isAvailable()) {
+                logger.warn("Product not available in requested quantity: {} (required: {})",
                         item.getProductId(), item.getQuantity());
                 throw new IllegalStateException("Product not available in requested quantity: " + item.getProductId());
             }
+
+            item.setUnitPrice(availability.getPrice());
+            item.setProductName(availability.getName());
+            totalPrice += availability.getPrice() * item.getQuantity();
         }
-        
+
         return totalPrice;
     }
     
@@ -168,95 +289,121 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus("PROCESSING");
         order.setCreatedAt(LocalDateTime.now());
         
-        logger.debug("Saving order to database: {}", order);
-        Order savedOrder = orderRepository.save(order);
-        
-        // Save order items
+        // Items are saved through the cascade; the ids are pre-allocated, so the order and all of its
+        // lines are written in JDBC batches when the transaction flushes
         for (OrderItem item : order.getItems()) {
-            item.setOrderId(savedOrder.getId());
-            orderItemRepository.save(item);
+            item.setOrder(order);
         }
+        logger.debug("Saving order to database: {}", order);
+        Order savedOrder = orderRepository.save(order);
         
         return savedOrder;
     }
     
     private void updateProductInventory(Order order) {
+        List<Map<String, Object>> reserveRequest = new ArrayList<>(order.getItems().size());
         for (OrderItem item : order.getItems()) {
-            String updateProductUrl = "http://product-service:8082/api/products/" + 
-                    item.getProductId() + "/updateQuantity?quantity=" + item.getQuantity();
-            logger.debug("Updating product inventory: {}", updateProductUrl);
-            
-            restTemplate.put(updateProductUrl, null);
-            logger.info("Successfully updated inventory for product ID: {}", item.getProductId());
+            reserveRequest.add(Map.of("productId", item.getProductId(), "quantity", item.getQuantity()));
+        }
+
+        // Reserve stock for the whole order in one all-or-nothing call
+        String reserveUrl = "http://product-service:8082/api/products/reserve";
+        logger.debug("Reserving product inventory: {}", reserveUrl);
+
+        StockReservationResult result;
+        try {
+            // Not retried: a reservation that timed out may still have been applied
+            result = downstreamClient.call(Downstream.PRODUCT, false,
+                    rest -> rest.postForObject(reserveUrl, reserveRequest, StockReservationResult.class));
+        } catch (HttpClientErrorException.Conflict e) {
+            result = readReservationResult(e.getResponseBodyAsString());
+        }
+
+        if (result == null || !result.isSuccess()) {
+            String failedLines = result == null ? "unknown" : result.getLines().stream()
+                    .filter(line -> !"RESERVED".equals(line.getStatus()) && !"ROLLED_BACK".equals(line.getStatus()))
+                    .map(line -> line.getProductId() + "=" + line.getStatus())
+                    .collect(Collectors.joining(", "));
+            logger.warn("Could not reserve inventory for order lines: {}", failedLines);
+            throw new IllegalStateException("Could not reserve inventory: " + failedLines);
         }
+        logger.info("Successfully reserved inventory for {} order lines", reserveRequest.size());
     }
-    
-    private void saveCustomerInfo(Order order) {
-        String userInfoUrl = "http://user-service:8083/api/users/" + order.getCustomerUsername() + "/info";
-        logger.debug("Saving customer information to: {}", userInfoUrl);
-        
-        restTemplate.postForEntity(userInfoUrl,
-                Map.of(
-                        "name", order.getCustomerName() != null ? order.getCustomerName() : "Unknown",
-                        "address", order.getCustomerAddress() != null ? order.getCustomerAddress() : "Unknown",
-                        "email", order.getCustomerEmail() != null ? order.getCustomerEmail() : "unknown@example.com",
-                        "phone", order.getCustomerPhone() != null ? order.getCustomerPhone() : "Unknown"
-                ),
-                Void.class);
-        logger.info("Successfully saved customer information for user: {}", order.getCustomerUsername());
+
+    private StockReservationResult readReservationResult(String body) {
+        try {
+            return objectMapper.readValue(body, StockReservationResult.class);
+        } catch (Exception e) {
+            logger.warn("Could not parse stock reservation response: {}", body);
+            return null;
+        }
     }
     
-    private void removeItemsFromCart(Order order) {
+    private void enqueuePostOrderEvents(Order order, UserProfile customer) {
+        List<Long> productIds = order.getItems().stream()
+                .map(OrderItem::getProductId)
+                .collect(Collectors.toList());
+
+        Map<String, Object> customerInfo = Map.of(
+                "name", order.getCustomerName() != null ? order.getCustomerName() : "Unknown",
+                "address", order.getCustomerAddress() != null ? order.getCustomerAddress() : "Unknown",
+                "email", order.getCustomerEmail() != null ? order.getCustomerEmail() : "unknown@example.com",
+                "phone", order.getCustomerPhone() != null ? order.getCustomerPhone() : "Unknown"
+        );
+
+        // Name and price are embedded so notification-service can render the email without product lookups
+        List<Map<String, Object>> emailItems = new ArrayList<>(order.getItems().size());
         for (OrderItem item : order.getItems()) {
-            String cartUrl = "http://cart-service:8084/api/cart/" + order.getCustomerUsername() + 
-                    "/items/" + item.getProductId();
-            logger.debug("Removing product from cart: {}", cartUrl);
-            
-            try {
-                restTemplate.delete(cartUrl);
-                logger.info("Successfully removed product from cart for user: {}", order.getCustomerUsername());
-            } catch (Exception e) {
-                logger.warn("Error removing product from cart, continuing process: {}", e.getMessage());
-            }
+            Map<String, Object> emailItem = new HashMap<>();
+            emailItem.put("productId", item.getProductId());
+            emailItem.put("name", item.getProductName());
+            emailItem.put("quantity", item.getQuantity());
+            emailItem.put("price", item.getUnitPrice());
+            emailItems.add(emailItem);
         }
-    }
-    
-    private void sendOrderConfirmationEmail(Order order) {
-        String userInfoUrl = "http://user-service:8083/api/users/" + order.getCustomerUsername();
-        Map<String, String> userInfo = restTemplate.getForObject(userInfoUrl, Map.class);
-        String email = userInfo != null ? userInfo.get("email") : null;
-        
+
+        Map<String, Object> confirmation = new HashMap<>(Map.of(
+                "orderId", order.getId(),
+                "status", order.getStatus(),
+                "items", emailItems,
+                "totalPrice", order.getTotalPrice()
+        ));
+        // The customer info saved with this order replaces the account email, so prefer it
+        String email = order.getCustomerEmail() != null ? order.getCustomerEmail() : customer.getEmail();
         if (email != null) {
-            try {
-                String notificationUrl = "http://notification-service:8085/api/notifications/email";
-                logger.debug("Sending confirmation email request to: {}", notificationUrl);
-                
-                String itemsJson = objectMapper.writeValueAsString(order.getItems());
-                
-                restTemplate.postForEntity(notificationUrl,
-                        Map.of(
-                                "email", email,
-                                "orderId", order.getId(),
-                                "status", order.getStatus(),
-                                "items", itemsJson,
-                                "totalPrice", order.getTotalPrice()
-                        ),
-                        Void.class);
-                
-                logger.info("Successfully sent confirmation email for order ID: {}", order.getId());
-            } catch (Exception e) {
-                logger.warn("Could not send confirmation email: {}", e.getMessage());
-            }
-        } else {
-            logger.warn("No email found for user {}, skipping email notification", order.getCustomerUsername());
+            confirmation.put("email", email);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.saveAll(List.of(
+                newOutboxEvent(order, OutboxEventType.SAVE_CUSTOMER_INFO, customerInfo, now),
+                newOutboxEvent(order, OutboxEventType.CLEAR_CART, Map.of("productIds", productIds), now),
+                newOutboxEvent(order, OutboxEventType.ORDER_CONFIRMATION_EMAIL, confirmation, now)
+        ));
+        logger.debug("Recorded post-order events for order ID: {}", order.getId());
+    }
+
+    private OutboxEvent newOutboxEvent(Order order, OutboxEventType type, Object payload, LocalDateTime now) {
+        OutboxEvent event = new OutboxEvent();
+        event.setOrderId(order.getId());
+        event.setCustomerUsername(order.getCustomerUsername());
+        event.setEventType(type);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + type + " event: " + e.getMessage(), e);
         }
+        event.setStatus(OutboxStatus.PENDING);
+        event.setNextAttemptAt(now);
+        event.setCreatedAt(now);
+        return event;
     }
 
     @Override
     public Order getOrderById(Long orderId) {
         logger.debug("Finding order with ID: {}", orderId);
         try {
-            return orderRepository.findById(orderId)
+            return orderRepository.findWithItemsById(orderId)
                     .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
         } catch (IllegalArgumentException e) {
             logger.error("Error finding order {}: {}", orderId, e.getMessage(), e);
@@ -266,4 +413,69 @@ public class OrderServiceImpl implements OrderService {
             throw new RuntimeException("Cannot find order: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Order> getOrdersByIds(List<Long> orderIds) {
+        logger.debug("Finding {} orders by ID", orderIds.size());
+        try {
+            List<Order> orders = orderRepository.findByIdInOrderByIdAsc(orderIds);
+            // The first access loads the items of every order in one query
+            orders.forEach(order -> Hibernate.initialize(order.getItems()));
+            return orders;
+        } catch (Exception e) {
+            logger.error("Unexpected error finding orders {}: {}", orderIds, e.getMessage(), e);
+            throw new RuntimeException("Cannot find orders: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public OrderHistoryPage getOrderHistory(String username, String cursor, int size) {
+        logger.debug("Finding order history for {} after cursor {}", username, cursor);
+        // Fetch one extra row to know whether there is a next page
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<OrderSummary> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findHistory(username, limit);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            orders = orderRepository.findHistoryBefore(username, position.createdAt, position.id, limit);
+        }
+
+        OrderHistoryPage page = new OrderHistoryPage();
+        if (orders.size() > size) {
+            orders = orders.subList(0, size);
+            OrderSummary last = orders.get(size - 1);
+            page.setNextCursor(HistoryCursor.encode(last.getCreatedAt(), last.getId()));
+        }
+        page.setItems(orders);
+        return page;
+    }
+
+    // Opaque cursor: base64url of "createdAt|id" of the last order on the previous page
+    private static final class HistoryCursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+
+        private HistoryCursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        static String encode(LocalDateTime createdAt, Long id) {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+    }
+}
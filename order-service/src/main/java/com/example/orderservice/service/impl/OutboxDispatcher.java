@@ -0,0 +1,173 @@
+package com.example.orderservice.service.impl;
+
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.model.OutboxEventType;
+import com.example.orderservice.model.OutboxStatus;
+import com.example.orderservice.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Background delivery of the order outbox: claims due events in batches,
+// hands them to PostOrderEventHandler and reschedules failures with exponential backoff.
+// The outcome of each event is written as soon as it is handled, and the claim is renewed once half of the lease has
+// passed, so neither a slow batch nor a crash mid-batch lets another dispatcher resend events that were delivered.
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private final OutboxEventRepository outboxEventRepository;
+    private final PostOrderEventHandler eventHandler;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long leaseMs;
+    private final long retentionHours;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            PostOrderEventHandler eventHandler,
+                            @Value("${outbox.dispatch.batch-size:50}") int batchSize,
+                            @Value("${outbox.dispatch.max-attempts:10}") int maxAttempts,
+                            @Value("${outbox.dispatch.initial-backoff-ms:1000}") long initialBackoffMs,
+                            @Value("${outbox.dispatch.max-backoff-ms:300000}") long maxBackoffMs,
+                            @Value("${outbox.dispatch.lease-ms:60000}") long leaseMs,
+                            @Value("${outbox.cleanup.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventHandler = eventHandler;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.leaseMs = leaseMs;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.dispatch.interval-ms:500}")
+    public void dispatchPending() {
+        try {
+            int claimed;
+            do {
+                claimed = dispatchBatch();
+            } while (claimed == batchSize);
+        } catch (Exception e) {
+            logger.error("Outbox dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup.interval-ms:3600000}")
+    public void purgeDelivered() {
+        try {
+            int deleted = outboxEventRepository.deleteByStatusUpdatedBefore(OutboxStatus.DONE,
+                    LocalDateTime.now().minusHours(retentionHours));
+            if (deleted > 0) {
+                logger.info("Purged {} delivered outbox events", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Outbox cleanup failed: {}", e.getMessage(), e);
+        }
+    }
+
+    int dispatchBatch() {
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(leaseMs, ChronoUnit.MILLIS);
+        int claimed = outboxEventRepository.claimBatch(token, now, leaseUntil, batchSize);
+        if (claimed == 0) {
+            return 0;
+        }
+
+        List<OutboxEvent> events = outboxEventRepository.findByClaimedByOrderByIdAsc(token);
+        logger.debug("Dispatching {} outbox events", events.size());
+
+        // Only the most recent customer info of each user has to reach user-service
+        Map<String, OutboxEvent> latestCustomerInfo = new HashMap<>();
+        for (OutboxEvent event : events) {
+            if (event.getEventType() == OutboxEventType.SAVE_CUSTOMER_INFO) {
+                latestCustomerInfo.put(event.getCustomerUsername(), event);
+            }
+        }
+
+        for (OutboxEvent event : events) {
+            // One event can take a few HTTP calls with retries; renew well before the lease runs out
+            if (LocalDateTime.now().plus(leaseMs / 2, ChronoUnit.MILLIS).isAfter(leaseUntil)) {
+                leaseUntil = LocalDateTime.now().plus(leaseMs, ChronoUnit.MILLIS);
+                if (outboxEventRepository.renewClaim(token, leaseUntil) == 0) {
+                    logger.warn("Outbox batch {} lost its lease, leaving the remaining events to other dispatchers", token);
+                    break;
+                }
+            }
+
+            if (event.getEventType() == OutboxEventType.SAVE_CUSTOMER_INFO
+                    && latestCustomerInfo.get(event.getCustomerUsername()) != event) {
+                markDelivered(event);
+            } else {
+                try {
+                    eventHandler.handle(event);
+                    markDelivered(event);
+                } catch (Exception e) {
+                    markFailed(event, e);
+                }
+            }
+
+            int released = outboxEventRepository.release(event.getId(), token, event.getStatus(), event.getAttempts(),
+                    event.getNextAttemptAt(), event.getLastError(), event.getUpdatedAt());
+            if (released == 0) {
+                logger.warn("Outbox event {} was reclaimed by another dispatcher before its outcome was saved",
+                        event.getId());
+            }
+        }
+
+        return claimed;
+    }
+
+    private void markDelivered(OutboxEvent event) {
+        event.setStatus(OutboxStatus.DONE);
+        event.setClaimedBy(null);
+        event.setClaimedUntil(null);
+        event.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private void markFailed(OutboxEvent event, Exception error) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(error.getMessage()));
+        event.setClaimedBy(null);
+        event.setClaimedUntil(null);
+        event.setUpdatedAt(LocalDateTime.now());
+
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxStatus.FAILED);
+            logger.error("Giving up on outbox event {} ({}) for order {} after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getOrderId(), attempts, error.getMessage());
+        } else {
+            long delayMs = backoffMs(attempts);
+            event.setNextAttemptAt(LocalDateTime.now().plus(delayMs, ChronoUnit.MILLIS));
+            logger.warn("Outbox event {} ({}) for order {} failed, retrying in {} ms: {}",
+                    event.getId(), event.getEventType(), event.getOrderId(), delayMs, error.getMessage());
+        }
+    }
+
+    // Exponential backoff with jitter so retries of many events do not hit a recovering service together
+    private long backoffMs(int attempts) {
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 20));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
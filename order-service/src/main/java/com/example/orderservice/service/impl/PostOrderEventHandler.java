@@ -0,0 +1,125 @@
+package com.example.orderservice.service.impl;
+
+import com.example.orderservice.dto.OrderConfirmationNotification;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.resilience.Downstream;
+import com.example.orderservice.resilience.DownstreamClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Delivers one outbox event to the downstream service it targets.
+// Any exception thrown from handle() makes the dispatcher retry the event later.
+@Component
+@RequiredArgsConstructor
+public class PostOrderEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostOrderEventHandler.class);
+    private final DownstreamClient downstreamClient;
+    private final ObjectMapper objectMapper;
+    private final SavedCustomerInfoCache savedCustomerInfoCache;
+
+    public void handle(OutboxEvent event) throws Exception {
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+        switch (event.getEventType()) {
+            case SAVE_CUSTOMER_INFO:
+                saveCustomerInfo(event.getCustomerUsername(), payload);
+                break;
+            case CLEAR_CART:
+                removeItemsFromCart(event.getCustomerUsername(), payload);
+                break;
+            case ORDER_CONFIRMATION_EMAIL:
+                sendOrderConfirmationEmail(event.getCustomerUsername(), payload);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported outbox event type: " + event.getEventType());
+        }
+    }
+
+    private void saveCustomerInfo(String username, JsonNode customerInfo) {
+        if (savedCustomerInfoCache.isSaved(username, customerInfo)) {
+            logger.debug("Customer information for user {} unchanged, skipping save", username);
+            return;
+        }
+
+        String userInfoUrl = "http://user-service:8083/api/users/" + username + "/info";
+        logger.debug("Saving customer information to: {}", userInfoUrl);
+
+        downstreamClient.call(Downstream.USER, false, rest -> rest.postForEntity(userInfoUrl, customerInfo, Void.class));
+        savedCustomerInfoCache.markSaved(username, customerInfo);
+        logger.info("Successfully saved customer information for user: {}", username);
+    }
+
+    private void removeItemsFromCart(String username, JsonNode payload) {
+        List<Long> productIds = new ArrayList<>();
+        for (JsonNode productId : payload.path("productIds")) {
+            productIds.add(productId.asLong());
+        }
+        if (productIds.isEmpty()) {
+            // Without productIds cart-service would clear the whole cart
+            return;
+        }
+
+        // One bulk delete for the whole order; items already gone are ignored by cart-service
+        String cartUrl = UriComponentsBuilder.fromHttpUrl("http://cart-service:8084/api/cart/{username}/items")
+                .queryParam("productIds", productIds.toArray())
+                .buildAndExpand(username)
+                .toUriString();
+        logger.debug("Removing ordered products from cart: {}", cartUrl);
+
+        try {
+            downstreamClient.call(Downstream.CART, true, rest -> {
+                rest.delete(cartUrl);
+                return null;
+            });
+            logger.info("Successfully removed {} products from cart for user: {}", productIds.size(), username);
+        } catch (HttpClientErrorException e) {
+            // Retrying will not fix a rejected request; server errors and connection problems are retried
+            logger.warn("Error removing products from cart, continuing process: {}", e.getMessage());
+        }
+    }
+
+    private void sendOrderConfirmationEmail(String username, JsonNode payload) throws Exception {
+        // The email is resolved when the order is created; only events queued by older versions lack it
+        Object email = payload.hasNonNull("email") ? payload.get("email").asText() : lookUpEmail(username);
+
+        if (email == null) {
+            logger.warn("No email found for user {}, skipping email notification", username);
+            return;
+        }
+
+        OrderConfirmationNotification notification = new OrderConfirmationNotification();
+        notification.setEmail(email.toString());
+        notification.setOrderId(payload.path("orderId").asLong());
+        notification.setStatus(payload.path("status").asText());
+        notification.setTotalPrice(payload.path("totalPrice").asDouble());
+        for (JsonNode item : payload.path("items")) {
+            notification.getItems().add(objectMapper.treeToValue(item, OrderConfirmationNotification.Item.class));
+        }
+
+        // Typed contract: items travel as a JSON array instead of a JSON string inside the JSON body
+        String notificationUrl = "http://notification-service:8085/api/notifications/v2/email";
+        logger.debug("Sending confirmation email request to: {}", notificationUrl);
+
+        // Not retried here: a timed-out request may still have queued the email; the outbox retries later
+        downstreamClient.call(Downstream.NOTIFICATION, false,
+                rest -> rest.postForEntity(notificationUrl, notification, Void.class));
+        logger.info("Successfully sent confirmation email for order ID: {}", payload.path("orderId").asLong());
+    }
+
+    private Object lookUpEmail(String username) {
+        String userInfoUrl = "http://user-service:8083/api/users/" + username;
+        Map<String, Object> userInfo = downstreamClient.call(Downstream.USER, true,
+                rest -> rest.getForObject(userInfoUrl, Map.class));
+        return userInfo != null ? userInfo.get("email") : null;
+    }
+}
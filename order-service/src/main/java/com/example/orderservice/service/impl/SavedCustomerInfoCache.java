@@ -0,0 +1,59 @@
+package com.example.orderservice.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the customer info this instance last saved to user-service for each user, so repeat orders
+ * with unchanged details do not send another write.
+ * <p>
+ * Entries expire after a TTL because another instance (or the user themself) may have changed the stored
+ * details in the meantime; the least recently used users are dropped once the cache is full.
+ */
+@Component
+public class SavedCustomerInfoCache {
+
+    private final long ttlMs;
+    private final Map<String, Entry> entries;
+
+    public SavedCustomerInfoCache(@Value("${order.customer-info-cache.max-entries:10000}") int maxEntries,
+                                  @Value("${order.customer-info-cache.ttl-ms:600000}") long ttlMs) {
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized boolean isSaved(String username, JsonNode customerInfo) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(username);
+            return false;
+        }
+        return entry.customerInfo.equals(customerInfo);
+    }
+
+    public synchronized void markSaved(String username, JsonNode customerInfo) {
+        entries.put(username, new Entry(customerInfo, System.currentTimeMillis() + ttlMs));
+    }
+
+    private static final class Entry {
+        private final JsonNode customerInfo;
+        private final long expiresAt;
+
+        private Entry(JsonNode customerInfo, long expiresAt) {
+            this.customerInfo = customerInfo;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.orderservice.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Compares how fast orders can be persisted with the old IDENTITY strategy (one round trip per row,
+ * generated key read back after every insert) and with pre-allocated ids and JDBC batching, which is what
+ * Hibernate does now that Order/OrderItem use a pooled table generator.
+ * <p>
+ * Needs a running MySQL; uses throw-away tables. Run manually:
+ * {@code java ... OrderInsertBenchmark [jdbcUrl] [user] [password] [ordersPerRun]}
+ */
+public class OrderInsertBenchmark {
+
+    private static final int[] LINES_PER_ORDER = {1, 10, 100};
+    private static final int ALLOCATION_SIZE = 50;
+
+    public static void main(String[] args) throws SQLException {
+        String url = args.length > 0 ? args[0]
+                : "jdbc:mysql://localhost:3306/order_db?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
+        String user = args.length > 1 ? args[1] : "root";
+        String password = args.length > 2 ? args[2] : "123456";
+        int orders = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+
+        try (Connection identity = DriverManager.getConnection(url, user, password);
+             Connection batched = DriverManager.getConnection(withBatchRewrite(url), user, password)) {
+            createTables(identity);
+            try {
+                System.out.printf("%-6s %-10s %14s %14s%n", "lines", "strategy", "orders/sec", "inserts/sec");
+                for (int lines : LINES_PER_ORDER) {
+                    int runOrders = Math.max(50, orders / lines);
+                    // Warm up both paths before measuring
+                    insertIdentity(identity, runOrders / 10, lines);
+                    insertBatched(batched, runOrders / 10, lines);
+
+                    report(lines, "identity", runOrders, time(() -> insertIdentity(identity, runOrders, lines)));
+                    report(lines, "batched", runOrders, time(() -> insertBatched(batched, runOrders, lines)));
+                }
+            } finally {
+                dropTables(identity);
+            }
+        }
+    }
+
+    // Old path: orderRepository.save + orderItemRepository.save per line, each an INSERT returning its key
+    private static void insertIdentity(Connection connection, int orders, int lines) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement orderInsert = connection.prepareStatement(
+                "INSERT INTO bench_orders_identity (customer_username, total_price, status, created_at) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement itemInsert = connection.prepareStatement(
+                     "INSERT INTO bench_order_items_identity (order_id, product_id, quantity, unit_price) VALUES (?, ?, ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            for (int o = 0; o < orders; o++) {
+                bindOrder(orderInsert, o);
+                orderInsert.executeUpdate();
+                long orderId;
+                try (ResultSet keys = orderInsert.getGeneratedKeys()) {
+                    keys.next();
+                    orderId = keys.getLong(1);
+                }
+                for (int l = 0; l < lines; l++) {
+                    bindItem(itemInsert, orderId, l);
+                    itemInsert.executeUpdate();
+                    try (ResultSet keys = itemInsert.getGeneratedKeys()) {
+                        keys.next();
+                    }
+                }
+                connection.commit();
+            }
+        }
+    }
+
+    // New path: ids come from a pooled table generator, the order and its lines go out as batched inserts
+    private static void insertBatched(Connection connection, int orders, int lines) throws SQLException {
+        connection.setAutoCommit(false);
+        IdBlock orderIds = new IdBlock(connection, "bench_orders");
+        IdBlock itemIds = new IdBlock(connection, "bench_order_items");
+        try (PreparedStatement orderInsert = connection.prepareStatement(
+                "INSERT INTO bench_orders (id, customer_username, total_price, status, created_at) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement itemInsert = connection.prepareStatement(
+                     "INSERT INTO bench_order_items (id, order_id, product_id, quantity, unit_price) VALUES (?, ?, ?, ?, ?)")) {
+            for (int o = 0; o < orders; o++) {
+                long orderId = orderIds.next();
+                orderInsert.setLong(1, orderId);
+                orderInsert.setString(2, "bench-user-" + (o % 100));
+                orderInsert.setDouble(3, 100.0);
+                orderInsert.setString(4, "CONFIRMED");
+                orderInsert.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+                orderInsert.executeUpdate();
+                for (int l = 0; l < lines; l++) {
+                    itemInsert.setLong(1, itemIds.next());
+                    itemInsert.setLong(2, orderId);
+                    itemInsert.setLong(3, l + 1);
+                    itemInsert.setInt(4, 1);
+                    itemInsert.setDouble(5, 10.0);
+                    itemInsert.addBatch();
+                    if ((l + 1) % ALLOCATION_SIZE == 0) {
+                        itemInsert.executeBatch();
+                    }
+                }
+                itemInsert.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+
+    private static void bindOrder(PreparedStatement statement, int o) throws SQLException {
+        statement.setString(1, "bench-user-" + (o % 100));
+        statement.setDouble(2, 100.0);
+        statement.setString(3, "CONFIRMED");
+        statement.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+    }
+
+    private static void bindItem(PreparedStatement statement, long orderId, int line) throws SQLException {
+        statement.setLong(1, orderId);
+        statement.setLong(2, line + 1);
+        statement.setInt(3, 1);
+        statement.setDouble(4, 10.0);
+    }
+
+    private static void createTables(Connection connection) throws SQLException {
+        dropTables(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE bench_orders_identity (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "customer_username VARCHAR(255) NOT NULL, total_price DECIMAL(10, 2) NOT NULL, "
+                    + "status VARCHAR(50) NOT NULL, created_at DATETIME)");
+            statement.execute("CREATE TABLE bench_order_items_identity (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, quantity INT NOT NULL, "
+                    + "unit_price DECIMAL(10, 2) NOT NULL, INDEX idx_order_id (order_id))");
+            statement.execute("CREATE TABLE bench_orders (id BIGINT PRIMARY KEY, "
+                    + "customer_username VARCHAR(255) NOT NULL, total_price DECIMAL(10, 2) NOT NULL, "
+                    + "status VARCHAR(50) NOT NULL, created_at DATETIME)");
+            statement.execute("CREATE TABLE bench_order_items (id BIGINT PRIMARY KEY, "
+                    + "order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, quantity INT NOT NULL, "
+                    + "unit_price DECIMAL(10, 2) NOT NULL, INDEX idx_order_id (order_id))");
+            statement.execute("CREATE TABLE bench_id_generator (sequence_name VARCHAR(255) PRIMARY KEY, next_val BIGINT NOT NULL)");
+            statement.execute("INSERT INTO bench_id_generator VALUES ('bench_orders', 1), ('bench_order_items', 1)");
+        }
+    }
+
+    private static void dropTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_orders_identity, bench_order_items_identity, "
+                    + "bench_orders, bench_order_items, bench_id_generator");
+        }
+    }
+
+    private static String withBatchRewrite(String url) {
+        return url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+    }
+
+    private static long time(SqlRunnable run) throws SQLException {
+        long start = System.nanoTime();
+        run.run();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(int lines, String strategy, int orders, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-6d %-10s %14.0f %14.0f%n", lines, strategy,
+                orders / seconds, orders * (lines + 1) / seconds);
+    }
+
+    @FunctionalInterface
+    private interface SqlRunnable {
+        void run() throws SQLException;
+    }
+
+    // Same allocation pattern as Hibernate's pooled table generator: one UPDATE per ALLOCATION_SIZE ids
+    private static final class IdBlock {
+        private final Connection connection;
+        private final String name;
+        private long next;
+        private long end;
+
+        IdBlock(Connection connection, String name) {
+            this.connection = connection;
+            this.name = name;
+        }
+
+        long next() throws SQLException {
+            if (next == end) {
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE bench_id_generator SET next_val = LAST_INSERT_ID(next_val + ?) WHERE sequence_name = ?")) {
+                    update.setInt(1, ALLOCATION_SIZE);
+                    update.setString(2, name);
+                    update.executeUpdate();
+                }
+                try (Statement select = connection.createStatement();
+                     ResultSet result = select.executeQuery("SELECT LAST_INSERT_ID()")) {
+                    result.next();
+                    end = result.getLong(1);
+                    next = end - ALLOCATION_SIZE;
+                }
+            }
+            return next++;
+        }
+    }
+}
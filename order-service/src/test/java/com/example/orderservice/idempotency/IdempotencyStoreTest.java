@@ -0,0 +1,106 @@
+package com.example.orderservice.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+    @Test
+    void replaysStoredResultWithoutRunningActionAgain() {
+        IdempotencyStore store = new IdempotencyStore(100, 60_000, 1_000);
+        AtomicInteger runs = new AtomicInteger();
+
+        IdempotencyStore.Result<String> first = store.execute("k", "f", () -> "order-" + runs.incrementAndGet());
+        IdempotencyStore.Result<String> second = store.execute("k", "f", () -> "order-" + runs.incrementAndGet());
+
+        assertEquals("order-1", first.getValue());
+        assertFalse(first.isReplayed());
+        assertEquals("order-1", second.getValue());
+        assertTrue(second.isReplayed());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForFirstResult() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(100, 60_000, 5_000);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<IdempotencyStore.Result<Integer>> original = executor.submit(() -> store.execute("k", "f", () -> {
+                started.countDown();
+                await(release);
+                return runs.incrementAndGet();
+            }));
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            Future<IdempotencyStore.Result<Integer>> duplicate1 =
+                    executor.submit(() -> store.execute("k", "f", runs::incrementAndGet));
+            Future<IdempotencyStore.Result<Integer>> duplicate2 =
+                    executor.submit(() -> store.execute("k", "f", runs::incrementAndGet));
+            release.countDown();
+
+            assertEquals(1, original.get(1, TimeUnit.SECONDS).getValue());
+            assertEquals(1, duplicate1.get(1, TimeUnit.SECONDS).getValue());
+            assertTrue(duplicate2.get(1, TimeUnit.SECONDS).isReplayed());
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsKeyReusedForDifferentRequest() {
+        IdempotencyStore store = new IdempotencyStore(100, 60_000, 1_000);
+        store.execute("k", "f1", () -> "order");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.execute("k", "f2", () -> "other"));
+    }
+
+    @Test
+    void doesNotRememberFailures() {
+        IdempotencyStore store = new IdempotencyStore(100, 60_000, 1_000);
+
+        assertThrows(IllegalStateException.class, () -> store.execute("k", "f", () -> {
+            throw new IllegalStateException("out of stock");
+        }));
+        IdempotencyStore.Result<String> retry = store.execute("k", "f", () -> "order");
+
+        assertEquals("order", retry.getValue());
+        assertFalse(retry.isReplayed());
+    }
+
+    @Test
+    void expiresAndEvictsOldestEntries() throws Exception {
+        IdempotencyStore expiring = new IdempotencyStore(100, 1, 1_000);
+        expiring.execute("k", "f", () -> "first");
+        Thread.sleep(5);
+        assertEquals("second", expiring.execute("k", "f", () -> "second").getValue());
+
+        IdempotencyStore bounded = new IdempotencyStore(2, 60_000, 1_000);
+        bounded.execute("a", "f", () -> "a");
+        bounded.execute("b", "f", () -> "b");
+        bounded.execute("c", "f", () -> "c");
+        assertEquals(2, bounded.size());
+        assertFalse(bounded.execute("a", "f", () -> "a2").isReplayed());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.orderservice.resilience;
+
+import com.example.orderservice.config.ResilienceProperties;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownstreamClientTest {
+
+    // Fault-injecting stand-in for product-service: queued status codes, a fixed delay or a held response
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile long delayMs;
+    private volatile CountDownLatch entered = new CountDownLatch(1);
+    private volatile CountDownLatch release;
+
+    private final ExecutorService stubThreads = Executors.newCachedThreadPool();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer stub;
+    private String url;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/api/products/batch", exchange -> {
+            hits.incrementAndGet();
+            entered.countDown();
+            try {
+                if (release != null) {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                Thread.sleep(delayMs);
+                Integer status = statuses.poll();
+                byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "text/plain");
+                exchange.sendResponseHeaders(status != null ? status : 200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException | IOException e) {
+                // The client already gave up on this request
+            } finally {
+                exchange.close();
+            }
+        });
+        stub.setExecutor(stubThreads);
+        stub.start();
+        url = "http://127.0.0.1:" + stub.getAddress().getPort() + "/api/products/batch";
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+        stubThreads.shutdownNow();
+    }
+
+    @Test
+    void retriesIdempotentCallsOnServerErrors() {
+        statuses.add(503);
+        DownstreamClient client = client(settings());
+
+        String result = client.call(Downstream.PRODUCT, true, rest -> rest.getForObject(url, String.class));
+
+        assertEquals("ok", result);
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void doesNotRetryNonIdempotentCalls() {
+        statuses.add(503);
+        DownstreamClient client = client(settings());
+
+        assertThrows(HttpServerErrorException.class,
+                () -> client.call(Downstream.PRODUCT, false, rest -> rest.postForObject(url, "[]", String.class)));
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void clientErrorsAreNeitherRetriedNorCountedAsFailures() {
+        statuses.add(404);
+        statuses.add(404);
+        statuses.add(404);
+        DownstreamClient client = client(settings());
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpClientErrorException.NotFound.class,
+                    () -> client.call(Downstream.PRODUCT, true, rest -> rest.getForObject(url, String.class)));
+        }
+
+        assertEquals(3, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, client.getState(Downstream.PRODUCT));
+    }
+
+    @Test
+    void timesOutHangingDownstreamAndOpensCircuit() {
+        delayMs = 2000;
+        DownstreamClient client = client(settings());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 2; i++) {
+            assertThrows(ResourceAccessException.class,
+                    () -> client.call(Downstream.PRODUCT, true, rest -> rest.getForObject(url, String.class)));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Two calls of two attempts each, cut off by the 200 ms read timeout instead of waiting for the stub
+        assertEquals(4, hits.get());
+        assertTrue(elapsedMs < 1500, "took " + elapsedMs + " ms");
+        assertEquals(CircuitBreaker.State.OPEN, client.getState(Downstream.PRODUCT));
+        assertEquals(1.0, meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tag("name", "product").tag("state", "open").gauge().value());
+
+        // While open, calls fail immediately without reaching the downstream
+        assertThrows(DownstreamUnavailableException.class,
+                () -> client.call(Downstream.PRODUCT, true, rest -> rest.getForObject(url, String.class)));
+        assertEquals(4, hits.get());
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondLimit() throws Exception {
+        release = new CountDownLatch(1);
+        ResilienceProperties.Settings settings = settings();
+        settings.setMaxConcurrentCalls(1);
+        DownstreamClient client = client(settings);
+
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = caller.submit(
+                    () -> client.call(Downstream.PRODUCT, true, rest -> rest.getForObject(url, String.class)));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            assertThrows(DownstreamUnavailableException.class,
+                    () -> client.call(Downstream.PRODUCT, true, rest -> rest.getForObject(url, String.class)));
+
+            release.countDown();
+            assertEquals("ok", first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, hits.get());
+            // A full bulkhead is not a downstream failure
+            assertEquals(CircuitBreaker.State.CLOSED, client.getState(Downstream.PRODUCT));
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    private ResilienceProperties.Settings settings() {
+        ResilienceProperties.Settings settings = new ResilienceProperties.Settings();
+        settings.setReadTimeoutMs(200);
+        settings.setSlidingWindowSize(4);
+        settings.setMinimumNumberOfCalls(4);
+        settings.setOpenStateWaitMs(60000);
+        settings.setMaxAttempts(2);
+        settings.setRetryBackoffMs(10);
+        return settings;
+    }
+
+    private DownstreamClient client(ResilienceProperties.Settings settings) {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getDownstream().put(Downstream.PRODUCT.getKey(), settings);
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(settings.getConnectTimeoutMs());
+        requestFactory.setReadTimeout(settings.getReadTimeoutMs());
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+
+        Map<Downstream, RestTemplate> restTemplates = new EnumMap<>(Downstream.class);
+        for (Downstream downstream : Downstream.values()) {
+            restTemplates.put(downstream, restTemplate);
+        }
+        return new DownstreamClient(restTemplates, properties, meterRegistry);
+    }
+}
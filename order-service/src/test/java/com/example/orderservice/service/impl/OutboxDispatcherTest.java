@@ -0,0 +1,260 @@
+package com.example.orderservice.service.impl;
+
+import com.example.orderservice.config.ResilienceProperties;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.model.OutboxEventType;
+import com.example.orderservice.model.OutboxStatus;
+import com.example.orderservice.repository.OutboxEventRepository;
+import com.example.orderservice.resilience.Downstream;
+import com.example.orderservice.resilience.DownstreamClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class OutboxDispatcherTest {
+
+    private OutboxEventRepository repository;
+    private MockRestServiceServer downstream;
+    private PostOrderEventHandler handler;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        RestTemplate restTemplate = new RestTemplate();
+        // Stand-in for user-service, cart-service and notification-service
+        downstream = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        Map<Downstream, RestTemplate> restTemplates = new EnumMap<>(Downstream.class);
+        for (Downstream target : Downstream.values()) {
+            restTemplates.put(target, restTemplate);
+        }
+        DownstreamClient downstreamClient = new DownstreamClient(restTemplates, new ResilienceProperties(),
+                new SimpleMeterRegistry());
+        handler = new PostOrderEventHandler(downstreamClient, new ObjectMapper(),
+                new SavedCustomerInfoCache(1000, 600000));
+        dispatcher = new OutboxDispatcher(repository, handler, 50, 3, 1000, 60000, 60000, 24);
+        when(repository.release(anyLong(), anyString(), any(), anyInt(), any(), any(), any())).thenReturn(1);
+        when(repository.renewClaim(anyString(), any())).thenReturn(1);
+    }
+
+    @Test
+    void deliversAllPostOrderEvents() {
+        List<OutboxEvent> events = List.of(
+                event(1L, OutboxEventType.SAVE_CUSTOMER_INFO, "{\"name\":\"Test\",\"email\":\"test@example.com\"}"),
+                event(2L, OutboxEventType.CLEAR_CART, "{\"productIds\":[1,2]}"),
+                event(3L, OutboxEventType.ORDER_CONFIRMATION_EMAIL,
+                        "{\"orderId\":7,\"status\":\"CONFIRMED\",\"totalPrice\":20.0,\"email\":\"test@example.com\","
+                                + "\"items\":[{\"productId\":1,\"name\":\"Product A\",\"quantity\":2,\"price\":10.0}]}"));
+        givenClaimed(events);
+
+        downstream.expect(requestTo("http://user-service:8083/api/users/testuser/info"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess());
+        downstream.expect(requestTo("http://cart-service:8084/api/cart/testuser/items?productIds=1&productIds=2"))
+                .andExpect(method(HttpMethod.DELETE))
+                .andRespond(withSuccess());
+        downstream.expect(requestTo("http://notification-service:8085/api/notifications/v2/email"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.orderId").value(7))
+                .andExpect(jsonPath("$.email").value("test@example.com"))
+                .andExpect(jsonPath("$.items[0].name").value("Product A"))
+                .andExpect(jsonPath("$.items[0].price").value(10.0))
+                .andRespond(withSuccess());
+
+        dispatcher.dispatchPending();
+
+        downstream.verify();
+        events.forEach(event -> assertEquals(OutboxStatus.DONE, event.getStatus()));
+    }
+
+    @Test
+    void looksUpEmailForEventsQueuedWithoutIt() {
+        OutboxEvent event = event(1L, OutboxEventType.ORDER_CONFIRMATION_EMAIL,
+                "{\"orderId\":7,\"status\":\"CONFIRMED\",\"items\":[],\"totalPrice\":20.0}");
+        givenClaimed(List.of(event));
+
+        downstream.expect(requestTo("http://user-service:8083/api/users/testuser"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"email\":\"test@example.com\"}", MediaType.APPLICATION_JSON));
+        downstream.expect(requestTo("http://notification-service:8085/api/notifications/v2/email"))
+                .andExpect(jsonPath("$.email").value("test@example.com"))
+                .andRespond(withSuccess());
+
+        dispatcher.dispatchPending();
+
+        downstream.verify();
+        assertEquals(OutboxStatus.DONE, event.getStatus());
+    }
+
+    @Test
+    void reschedulesFailedEventWithBackoff() {
+        OutboxEvent event = event(1L, OutboxEventType.SAVE_CUSTOMER_INFO, "{\"name\":\"Test\"}");
+        givenClaimed(List.of(event));
+
+        downstream.expect(requestTo("http://user-service:8083/api/users/testuser/info"))
+                .andRespond(withServerError());
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatchPending();
+
+        downstream.verify();
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertNotNull(event.getLastError());
+        assertTrue(event.getNextAttemptAt().isAfter(before));
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        OutboxEvent event = event(1L, OutboxEventType.SAVE_CUSTOMER_INFO, "{\"name\":\"Test\"}");
+        event.setAttempts(2);
+        givenClaimed(List.of(event));
+
+        downstream.expect(requestTo("http://user-service:8083/api/users/testuser/info"))
+                .andRespond(withServerError());
+
+        dispatcher.dispatchPending();
+
+        assertEquals(OutboxStatus.FAILED, event.getStatus());
+        assertEquals(3, event.getAttempts());
+    }
+
+    @Test
+    void sendsOnlyLatestCustomerInfoPerUser() {
+        List<OutboxEvent> events = List.of(
+                event(1L, OutboxEventType.SAVE_CUSTOMER_INFO, "{\"name\":\"First\"}"),
+                event(2L, OutboxEventType.SAVE_CUSTOMER_INFO, "{\"name\":\"Second\"}"));
+        givenClaimed(events);
+
+        downstream.expect(ExpectedCount.once(), requestTo("http://user-service:8083/api/users/testuser/info"))
+                .andExpect(jsonPath("$.name").value("Second"))
+                .andRespond(withSuccess());
+
+        dispatcher.dispatchPending();
+
+        downstream.verify();
+        events.forEach(event -> assertEquals(OutboxStatus.DONE, event.getStatus()));
+    }
+
+    @Test
+    void skipsCustomerInfoAlreadySaved() {
+        OutboxEvent first = event(1L, OutboxEventType.SAVE_CUSTOMER_INFO, "{\"name\":\"Test\",\"phone\":\"123\"}");
+        givenClaimed(List.of(first));
+        downstream.expect(ExpectedCount.once(), requestTo("http://user-service:8083/api/users/testuser/info"))
+                .andRespond(withSuccess());
+        dispatcher.dispatchPending();
+
+        // Same details on the next order: no second POST (the server would fail the unexpected request)
+        OutboxEvent repeat = event(2L, OutboxEventType.SAVE_CUSTOMER_INFO, "{\"phone\":\"123\",\"name\":\"Test\"}");
+        givenClaimed(List.of(repeat));
+        dispatcher.dispatchPending();
+
+        downstream.verify();
+        assertEquals(OutboxStatus.DONE, first.getStatus());
+        assertEquals(OutboxStatus.DONE, repeat.getStatus());
+    }
+
+    @Test
+    void savesEachOutcomeAsSoonAsItIsHandled() {
+        List<OutboxEvent> events = List.of(
+                event(1L, OutboxEventType.CLEAR_CART, "{\"productIds\":[1]}"),
+                event(2L, OutboxEventType.SAVE_CUSTOMER_INFO, "{\"name\":\"Test\"}"));
+        givenClaimed(events);
+
+        downstream.expect(requestTo("http://cart-service:8084/api/cart/testuser/items?productIds=1"))
+                .andRespond(withSuccess());
+        downstream.expect(requestTo("http://user-service:8083/api/users/testuser/info"))
+                .andRespond(withServerError());
+
+        dispatcher.dispatchPending();
+
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        verify(repository).claimBatch(token.capture(), any(), any(), anyInt());
+        // Conditional on the batch token, one UPDATE per event instead of a select + update for each in saveAll
+        verify(repository).release(eq(1L), eq(token.getValue()), eq(OutboxStatus.DONE), eq(0), any(), any(), any());
+        verify(repository).release(eq(2L), eq(token.getValue()), eq(OutboxStatus.PENDING), eq(1), any(), any(), any());
+        verify(repository, never()).saveAll(any());
+    }
+
+    @Test
+    void renewsLeaseDuringBatch() {
+        dispatcher = new OutboxDispatcher(repository, handler, 50, 3, 1000, 60000, 0, 24);
+        List<OutboxEvent> events = List.of(
+                event(1L, OutboxEventType.CLEAR_CART, "{\"productIds\":[1]}"),
+                event(2L, OutboxEventType.CLEAR_CART, "{\"productIds\":[2]}"));
+        givenClaimed(events);
+        downstream.expect(ExpectedCount.twice(), requestTo(startsWith("http://cart-service:8084/")))
+                .andRespond(withSuccess());
+
+        dispatcher.dispatchPending();
+
+        downstream.verify();
+        verify(repository, times(2)).renewClaim(anyString(), any());
+        events.forEach(event -> assertEquals(OutboxStatus.DONE, event.getStatus()));
+    }
+
+    @Test
+    void stopsBatchWhenLeaseWasLost() {
+        dispatcher = new OutboxDispatcher(repository, handler, 50, 3, 1000, 60000, 0, 24);
+        when(repository.renewClaim(anyString(), any())).thenReturn(0);
+        OutboxEvent event = event(1L, OutboxEventType.CLEAR_CART, "{\"productIds\":[1]}");
+        givenClaimed(List.of(event));
+
+        // No request is expected: the event now belongs to another dispatcher
+        dispatcher.dispatchPending();
+
+        downstream.verify();
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        verify(repository, never()).release(anyLong(), anyString(), any(), anyInt(), any(), any(), any());
+    }
+
+    private void givenClaimed(List<OutboxEvent> events) {
+        when(repository.claimBatch(anyString(), any(), any(), anyInt())).thenReturn(events.size(), 0);
+        when(repository.findByClaimedByOrderByIdAsc(anyString())).thenReturn(events);
+    }
+
+    private OutboxEvent event(Long id, OutboxEventType type, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setOrderId(7L);
+        event.setCustomerUsername("testuser");
+        event.setEventType(type);
+        event.setPayload(payload);
+        event.setStatus(OutboxStatus.PENDING);
+        event.setNextAttemptAt(LocalDateTime.now());
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+}
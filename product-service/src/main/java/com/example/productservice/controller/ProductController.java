@@ -1,10 +1,26 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.dto.CatalogSnapshot;
+import com.example.productservice.dto.ProductAvailabilityRequest;
+import com.example.productservice.dto.ProductAvailabilityResponse;
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.dto.ProductPage;
+import com.example.productservice.dto.ProductSearchResult;
+import com.example.productservice.dto.StockReservationRequest;
+import com.example.productservice.dto.StockReservationResponse;
 import com.example.productservice.entity.Product;
 import com.example.productservice.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -15,7 +31,11 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    private static final int MAX_SEARCH_LIMIT = 100;
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
@@ -24,10 +44,86 @@ public class ProductController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Trả về bản chụp JSON dựng sẵn; client gửi If-None-Match trùng ETag sẽ nhận 304
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.findAll();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CatalogSnapshot snapshot = productService.getCatalogSnapshot();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? snapshot.getGzipEtag() : snapshot.getEtag();
+
+        // Cache có thể đang giữ bản nén hoặc bản thường; 304 mang ETag của bản mà cache dùng lại được
+        String matchedEtag = matchingEtag(ifNoneMatch, etag, gzip ? snapshot.getEtag() : snapshot.getGzipEtag());
+        if (matchedEtag != null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(matchedEtag)
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+        }
+        return response.body(snapshot.getJson());
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<ProductPage> getProductPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String afterName,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String namePrefix) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size phải từ 1 đến " + MAX_PAGE_SIZE);
+        }
+        if (namePrefix != null && !namePrefix.isBlank() && (after == null) != (afterName == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "after và afterName phải được gửi cùng nhau khi lọc theo namePrefix");
+        }
+        return ResponseEntity.ok(productService.findPage(after, afterName, size, namePrefix));
+    }
+
+    // Tìm kiếm theo tên và mô tả, kết quả xếp theo mức độ liên quan
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchResult>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit phải từ 1 đến " + MAX_SEARCH_LIMIT);
+        }
+        return ResponseEntity.ok(productService.searchProducts(q, limit));
+    }
+
+    // Xuất toàn bộ sản phẩm dạng mảng JSON, ghi dần từng trang nên không giữ cả danh mục trong bộ nhớ
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+                generator.writeStartArray();
+                Long after = null;
+                do {
+                    ProductPage page = productService.findPage(after, null, EXPORT_BATCH_SIZE, null);
+                    for (Product product : page.getItems()) {
+                        generator.writeObject(product);
+                    }
+                    generator.flush();
+                    after = page.getNextCursor();
+                } while (after != null);
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChanges> getProductChanges(@RequestParam(defaultValue = "-1") long since) {
+        return ResponseEntity.ok(productService.getChangesSince(since));
     }
 
     @GetMapping("/check")
@@ -38,6 +134,13 @@ public class ProductController {
         return ResponseEntity.ok(Map.of("isAvailable", isAvailable));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductAvailabilityResponse>> checkProductsAvailability(
+            @RequestBody List<ProductAvailabilityRequest> requests) {
+        List<ProductAvailabilityResponse> responses = productService.checkProductsAvailability(requests);
+        return ResponseEntity.ok(responses);
+    }
+
     @PutMapping("/{id}/updateQuantity")
     public ResponseEntity<Void> updateProductQuantity(
             @PathVariable Long id,
@@ -45,4 +148,64 @@ public class ProductController {
         productService.updateProductQuantity(id, quantity);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    @PostMapping("/reserve")
+    public ResponseEntity<StockReservationResponse> reserveStock(
+            @RequestBody List<StockReservationRequest> requests) {
+        StockReservationResponse response = productService.reserveStock(requests);
+        return ResponseEntity.status(response.isSuccess() ? HttpStatus.OK : HttpStatus.CONFLICT)
+                .body(response);
+    }
+
+    // gzip được chọn khi Accept-Encoding có gzip (hoặc *) với q > 0; "gzip;q=0" nghĩa là client không nhận gzip
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase();
+            double quality = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+
+    // ETag trong If-None-Match trùng với một trong các ETag hiện tại (so sánh yếu, ưu tiên ETag đầu tiên), hoặc null
+    private static String matchingEtag(String ifNoneMatch, String... etags) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return null;
+        }
+        for (String etag : etags) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String value = candidate.trim();
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
+                }
+                if (value.equals("*") || value.equals(etag)) {
+                    return etag;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.productservice.dto;
+
+// Danh sách sản phẩm đã được tuần tự hóa sẵn thành JSON (và bản nén gzip) cùng ETag tương ứng.
+// Hai bản là hai chuỗi byte khác nhau nên mỗi bản có ETag mạnh riêng (bản gzip thêm hậu tố "-gzip")
+public class CatalogSnapshot {
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String etag;
+    private final String gzipEtag;
+
+    public CatalogSnapshot(byte[] json, byte[] gzip, String etag) {
+        this.json = json;
+        this.gzip = gzip;
+        this.etag = etag;
+        this.gzipEtag = etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag + "-gzip";
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getGzipEtag() {
+        return gzipEtag;
+    }
+}
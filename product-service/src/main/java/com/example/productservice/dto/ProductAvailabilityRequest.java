@@ -0,0 +1,12 @@
+package com.example.productservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Một dòng yêu cầu kiểm tra tồn kho: sản phẩm và số lượng cần mua
+@Getter
+@Setter
+public class ProductAvailabilityRequest {
+    private Long productId;
+    private int quantity;
+}
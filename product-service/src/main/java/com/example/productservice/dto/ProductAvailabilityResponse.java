@@ -0,0 +1,16 @@
+package com.example.productservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Kết quả kiểm tra cho một dòng: giá, tên và tình trạng tồn kho của sản phẩm
+@Getter
+@Setter
+public class ProductAvailabilityResponse {
+    private Long productId;
+    private String name;
+    private double price;
+    private int requestedQuantity;
+    private boolean found;
+    private boolean available;
+}
@@ -0,0 +1,19 @@
+package com.example.productservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Set;
+
+// Danh sách sản phẩm thay đổi kể từ một số thứ tự; dùng để các service khác làm mất hiệu lực cache
+@Getter
+@Setter
+public class ProductChanges {
+    // Đổi mỗi lần product-service khởi động; client thấy epoch khác thì xóa toàn bộ cache
+    private String epoch;
+    // Số thứ tự (version) mới nhất, client gửi lại ở lần hỏi sau
+    private long sequence;
+    // true khi nhật ký không còn giữ đủ thay đổi kể từ "since", client cần xóa toàn bộ cache
+    private boolean reset;
+    private Set<Long> productIds;
+}
@@ -0,0 +1,17 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.entity.Product;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Một trang sản phẩm theo keyset: gửi nextCursor vào tham số "after" để lấy trang tiếp theo (null khi hết).
+// Khi lọc theo tiền tố tên, trang được sắp theo (name, id) và cần gửi thêm nextName vào tham số "afterName"
+@Getter
+@Setter
+public class ProductPage {
+    private List<Product> items;
+    private Long nextCursor;
+    private String nextName;
+}
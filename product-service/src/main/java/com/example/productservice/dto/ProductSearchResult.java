@@ -0,0 +1,14 @@
+package com.example.productservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Một kết quả tìm kiếm sản phẩm, sắp xếp theo score giảm dần
+@Getter
+@Setter
+public class ProductSearchResult {
+    private Long id;
+    private String name;
+    private double price;
+    private float score;
+}
@@ -0,0 +1,12 @@
+package com.example.productservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Một dòng cần giữ tồn kho khi đặt hàng
+@Getter
+@Setter
+public class StockReservationRequest {
+    private Long productId;
+    private int quantity;
+}
@@ -0,0 +1,31 @@
+package com.example.productservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Kết quả giữ tồn kho cho cả đơn hàng: thành công toàn bộ hoặc không dòng nào được trừ
+@Getter
+@Setter
+public class StockReservationResponse {
+    private boolean success;
+    private List<Line> lines = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Line {
+        private Long productId;
+        private int quantity;
+        private Status status;
+    }
+
+    public enum Status {
+        RESERVED,          // Đã trừ tồn kho
+        INSUFFICIENT_STOCK,
+        NOT_FOUND,
+        INVALID_QUANTITY,
+        ROLLED_BACK        // Dòng hợp lệ nhưng bị hoàn tác vì dòng khác thất bại
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.productservice.entity;
 
+import com.example.productservice.event.ProductEntityListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductEntityListener.class)
 @Getter
 @Setter
 public class Product {
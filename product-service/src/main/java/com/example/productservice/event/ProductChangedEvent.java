@@ -0,0 +1,16 @@
+package com.example.productservice.event;
+
+import java.util.Set;
+
+// Phát ra khi tồn kho hoặc thông tin của một hay nhiều sản phẩm thay đổi
+public class ProductChangedEvent {
+    private final Set<Long> productIds;
+
+    public ProductChangedEvent(Set<Long> productIds) {
+        this.productIds = Set.copyOf(productIds);
+    }
+
+    public Set<Long> getProductIds() {
+        return productIds;
+    }
+}
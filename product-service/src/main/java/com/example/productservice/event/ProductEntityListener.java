@@ -0,0 +1,26 @@
+package com.example.productservice.event;
+
+import com.example.productservice.entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+// Bắt các thay đổi đi qua JPA (thêm sản phẩm, đổi giá, ...); các câu UPDATE native do ProductServiceImpl tự phát sự kiện
+@Component
+@RequiredArgsConstructor
+public class ProductEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(Set.of(product.getId())));
+    }
+}
@@ -1,11 +1,35 @@
 package com.example.productservice.repository;
 
 import com.example.productservice.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findById(Long id);
     Optional<Product> findByName(String name);
+
+    // Phân trang keyset theo id: WHERE id > ? ORDER BY id LIMIT ?
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Lọc theo tiền tố tên kết hợp keyset theo (name, id): chỉ mục idx_name của InnoDB chứa sẵn khóa chính nên vừa lọc
+    // LIKE 'abc%' vừa trả về đúng thứ tự, không cần filesort. "name >= :afterName" giới hạn khoảng quét của chỉ mục;
+    // pattern dùng '!' làm ký tự escape (dấu '\' bị MySQL hiểu là escape trong chuỗi)
+    @Query("select p from Product p where p.name like :pattern escape '!' and p.name >= :afterName " +
+            "and (p.name > :afterName or p.id > :afterId) order by p.name, p.id")
+    List<Product> findByNamePrefixAfter(@Param("pattern") String pattern,
+                                        @Param("afterName") String afterName,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    // Trừ tồn kho nguyên tử: trả về 0 nếu sản phẩm không tồn tại hoặc không đủ số lượng
+    @Modifying
+    @Query(value = "UPDATE products SET quantity_in_stock = quantity_in_stock - :quantity " +
+            "WHERE id = :id AND quantity_in_stock >= :quantity", nativeQuery = true)
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
@@ -0,0 +1,589 @@
+package com.example.productservice.search;
+
+import com.example.productservice.dto.ProductSearchResult;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục đảo ngược trong bộ nhớ trên tên và mô tả sản phẩm.
+ * <p>
+ * Xếp hạng theo BM25, tên sản phẩm có trọng số cao hơn mô tả. Mọi từ trong truy vấn phải khớp (AND);
+ * từ cuối cùng được so khớp theo tiền tố, và từ không có trong từ điển được so khớp gần đúng
+ * (sai một ký tự: thêm, bớt, thay hoặc đảo hai ký tự liền nhau) qua chỉ mục các biến thể xóa một ký tự.
+ * Dấu tiếng Việt được bỏ khi tách từ nên "ao so mi" khớp với "Áo sơ mi".
+ * <p>
+ * Cập nhật tăng dần: sản phẩm đổi tên hoặc mô tả được đánh dấu xóa và thêm lại. Khi posting hoặc ô tài liệu
+ * đã xóa chiếm quá 25%, chỉ mục được nén: đánh số lại các tài liệu còn sống, thu nhỏ các mảng và bỏ các term
+ * không còn tài liệu nào, nên bộ nhớ không tăng theo số lần cập nhật. Chỉ đổi giá (hoặc tồn kho) thì cập nhật tại chỗ.
+ */
+public class ProductSearchIndex {
+
+    private static final float NAME_BOOST = 3.0f;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_WEIGHT = 0.8f;
+    private static final float FUZZY_WEIGHT = 0.6f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_EXPANSIONS = 64;
+    private static final int MAX_QUERY_TOKENS = 16;
+    private static final int MIN_CAPACITY = 1024;
+
+    private static final ThreadLocal<QueryState> QUERY_STATE = ThreadLocal.withInitial(QueryState::new);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private final TreeMap<String, Postings> postingsByTerm = new TreeMap<>();
+    private final Map<String, List<String>> termsByDeletion = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] productIds = new long[MIN_CAPACITY];
+    private String[] names = new String[MIN_CAPACITY];
+    private double[] prices = new double[MIN_CAPACITY];
+    private String[] descriptions = new String[MIN_CAPACITY];
+    private float[] docLengths = new float[MIN_CAPACITY];
+    private int[] termCounts = new int[MIN_CAPACITY];
+    private int docCount;
+    private int liveCount;
+    private double totalLength;
+    private long livePostings;
+    private long deadPostings;
+
+    public void upsert(long productId, String name, String description, double price) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByProductId.get(productId);
+            if (existing != null) {
+                if (Objects.equals(names[existing], name) && Objects.equals(descriptions[existing], description)) {
+                    prices[existing] = price;
+                    return;
+                }
+                delete(existing);
+            }
+
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            Map<String, int[]> frequencies = new HashMap<>();
+            List<String> nameTokens = tokenize(name);
+            List<String> descriptionTokens = tokenize(description);
+            for (String token : nameTokens) {
+                frequencies.computeIfAbsent(token, t -> new int[2])[0]++;
+            }
+            for (String token : descriptionTokens) {
+                frequencies.computeIfAbsent(token, t -> new int[2])[1]++;
+            }
+            for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+                int nameTf = Math.min(entry.getValue()[0], 0xFFFF);
+                int descriptionTf = Math.min(entry.getValue()[1], 0xFFFF);
+                postingsFor(entry.getKey()).add(doc, (nameTf << 16) | descriptionTf);
+            }
+
+            productIds[doc] = productId;
+            names[doc] = name;
+            prices[doc] = price;
+            descriptions[doc] = description;
+            docLengths[doc] = nameTokens.size() * NAME_BOOST + descriptionTokens.size();
+            termCounts[doc] = frequencies.size();
+            docByProductId.put(productId, doc);
+            liveCount++;
+            totalLength += docLengths[doc];
+            livePostings += frequencies.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByProductId.get(productId);
+            if (existing != null) {
+                delete(existing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ProductSearchResult> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+
+        lock.readLock().lock();
+        try {
+            // Mọi từ phải khớp được ít nhất một term, nếu không thì chắc chắn không có kết quả
+            List<List<Expansion>> expansions = new ArrayList<>(tokens.size());
+            for (int t = 0; t < tokens.size(); t++) {
+                List<Expansion> tokenExpansions = expand(tokens.get(t), t == tokens.size() - 1);
+                if (tokenExpansions.isEmpty()) {
+                    return List.of();
+                }
+                expansions.add(tokenExpansions);
+            }
+
+            QueryState state = QUERY_STATE.get();
+            state.ensureCapacity(docCount);
+            try {
+                score(expansions, state);
+                return topHits(state, (1 << tokens.size()) - 1, limit);
+            } finally {
+                state.reset();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(List<List<Expansion>> expansions, QueryState state) {
+        float averageLength = liveCount == 0 ? 1f : (float) (totalLength / liveCount);
+        for (int t = 0; t < expansions.size(); t++) {
+            int bit = 1 << t;
+            int previousBits = bit - 1;
+            // Các expansion được xét theo thứ tự trọng số giảm dần; một tài liệu chỉ được tính một lần cho mỗi từ
+            for (Expansion expansion : expansions.get(t)) {
+                Postings postings = expansion.postings;
+                float idf = idf(postings.size);
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = postings.docs[i];
+                    int mask = state.masks[doc];
+                    if (mask != previousBits || deleted.get(doc)) {
+                        continue;
+                    }
+                    int frequency = postings.frequencies[i];
+                    float tf = (frequency >>> 16) * NAME_BOOST + (frequency & 0xFFFF);
+                    float norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+                    if (mask == 0) {
+                        state.touch(doc);
+                    }
+                    state.masks[doc] = mask | bit;
+                    state.scores[doc] += expansion.weight * idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+        }
+    }
+
+    private List<ProductSearchResult> topHits(QueryState state, int allBits, int limit) {
+        int[] heapDocs = new int[limit];
+        float[] heapScores = new float[limit];
+        int count = 0;
+        for (int i = 0; i < state.touchedCount; i++) {
+            int doc = state.touched[i];
+            if (state.masks[doc] != allBits) {
+                continue;
+            }
+            float score = state.scores[doc];
+            if (count == limit && !ranksHigher(score, doc, heapScores[count - 1], heapDocs[count - 1])) {
+                continue;
+            }
+            // Chèn vào mảng đã sắp xếp giảm dần (limit nhỏ nên chi phí chèn không đáng kể)
+            int position = count < limit ? count++ : count - 1;
+            while (position > 0 && ranksHigher(score, doc, heapScores[position - 1], heapDocs[position - 1])) {
+                heapScores[position] = heapScores[position - 1];
+                heapDocs[position] = heapDocs[position - 1];
+                position--;
+            }
+            heapScores[position] = score;
+            heapDocs[position] = doc;
+        }
+
+        List<ProductSearchResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int doc = heapDocs[i];
+            ProductSearchResult result = new ProductSearchResult();
+            result.setId(productIds[doc]);
+            result.setName(names[doc]);
+            result.setPrice(prices[doc]);
+            result.setScore(heapScores[i]);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private boolean ranksHigher(float score, int doc, float otherScore, int otherDoc) {
+        return score > otherScore || (score == otherScore && productIds[doc] < productIds[otherDoc]);
+    }
+
+    private float idf(int documentFrequency) {
+        int df = Math.min(documentFrequency, Math.max(liveCount, 1));
+        return (float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+    }
+
+    private List<Expansion> expand(String token, boolean allowPrefix) {
+        List<Expansion> expansions = new ArrayList<>();
+        Postings exact = postingsByTerm.get(token);
+        boolean exactMatch = exact != null && exact.size > 0;
+        if (exactMatch) {
+            expansions.add(new Expansion(exact, 1f));
+        }
+
+        if (allowPrefix && token.length() >= MIN_PREFIX_LENGTH) {
+            for (Map.Entry<String, Postings> entry
+                    : postingsByTerm.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                if (expansions.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                if (entry.getValue().size > 0) {
+                    expansions.add(new Expansion(entry.getValue(), PREFIX_WEIGHT));
+                }
+            }
+        }
+
+        if (!exactMatch && token.length() >= MIN_FUZZY_LENGTH && !hasDigit(token)) {
+            for (String candidate : fuzzyCandidates(token)) {
+                if (expansions.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                Postings postings = postingsByTerm.get(candidate);
+                if (postings != null && postings.size > 0) {
+                    expansions.add(new Expansion(postings, FUZZY_WEIGHT));
+                }
+            }
+        }
+        return expansions;
+    }
+
+    private Set<String> fuzzyCandidates(String token) {
+        Set<String> candidates = new LinkedHashSet<>();
+        // Người dùng gõ thiếu một ký tự
+        candidates.addAll(termsByDeletion.getOrDefault(token, List.of()));
+        for (int i = 0; i < token.length(); i++) {
+            String deletion = token.substring(0, i) + token.substring(i + 1);
+            // Người dùng gõ thừa một ký tự
+            if (postingsByTerm.containsKey(deletion)) {
+                candidates.add(deletion);
+            }
+            // Gõ sai hoặc đảo ký tự: hai từ có chung một biến thể xóa
+            candidates.addAll(termsByDeletion.getOrDefault(deletion, List.of()));
+        }
+        candidates.removeIf(candidate -> candidate.equals(token) || !withinOneEdit(token, candidate));
+        return candidates;
+    }
+
+    private Postings postingsFor(String term) {
+        Postings postings = postingsByTerm.get(term);
+        if (postings == null) {
+            postings = new Postings();
+            postingsByTerm.put(term, postings);
+            if (term.length() >= MIN_FUZZY_LENGTH && !hasDigit(term)) {
+                for (int i = 0; i < term.length(); i++) {
+                    // Xóa một trong hai ký tự liền nhau giống nhau cho cùng một biến thể; chỉ ghi một lần
+                    if (i > 0 && term.charAt(i) == term.charAt(i - 1)) {
+                        continue;
+                    }
+                    String deletion = term.substring(0, i) + term.substring(i + 1);
+                    termsByDeletion.computeIfAbsent(deletion, d -> new ArrayList<>(1)).add(term);
+                }
+            }
+        }
+        return postings;
+    }
+
+    private void delete(int doc) {
+        deleted.set(doc);
+        docByProductId.remove(productIds[doc]);
+        liveCount--;
+        totalLength -= docLengths[doc];
+        livePostings -= termCounts[doc];
+        deadPostings += termCounts[doc];
+        names[doc] = null;
+        descriptions[doc] = null;
+        int deadDocs = docCount - liveCount;
+        if ((deadPostings > 1024 && deadPostings > livePostings / 4)
+                || (deadDocs > MIN_CAPACITY && deadDocs > liveCount / 4)) {
+            compact();
+        }
+    }
+
+    // Đánh số lại các tài liệu còn sống từ 0 (giữ nguyên thứ tự nên posting vẫn được sắp xếp),
+    // bỏ posting của tài liệu đã xóa, bỏ term không còn posting cùng các biến thể xóa của nó, và thu nhỏ các mảng
+    void compact() {
+        lock.writeLock().lock();
+        try {
+            int[] newDocs = new int[docCount];
+            int next = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (deleted.get(doc)) {
+                    newDocs[doc] = -1;
+                    continue;
+                }
+                newDocs[doc] = next;
+                productIds[next] = productIds[doc];
+                names[next] = names[doc];
+                prices[next] = prices[doc];
+                descriptions[next] = descriptions[doc];
+                docLengths[next] = docLengths[doc];
+                termCounts[next] = termCounts[doc];
+                docByProductId.put(productIds[next], next);
+                next++;
+            }
+
+            Iterator<Map.Entry<String, Postings>> terms = postingsByTerm.entrySet().iterator();
+            while (terms.hasNext()) {
+                Map.Entry<String, Postings> entry = terms.next();
+                Postings postings = entry.getValue();
+                int kept = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = newDocs[postings.docs[i]];
+                    if (doc >= 0) {
+                        postings.docs[kept] = doc;
+                        postings.frequencies[kept] = postings.frequencies[i];
+                        kept++;
+                    }
+                }
+                if (kept == 0) {
+                    // Đọc key trước khi xóa: TreeMap có thể chép key của nút kế tiếp vào entry vừa bị xóa
+                    String term = entry.getKey();
+                    terms.remove();
+                    removeDeletionVariants(term);
+                } else {
+                    postings.trim(kept);
+                }
+            }
+
+            docCount = next;
+            deleted.clear();
+            deadPostings = 0;
+            int capacity = Math.max(MIN_CAPACITY, docCount + docCount / 2);
+            if (capacity < productIds.length) {
+                productIds = Arrays.copyOf(productIds, capacity);
+                names = Arrays.copyOf(names, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                descriptions = Arrays.copyOf(descriptions, capacity);
+                docLengths = Arrays.copyOf(docLengths, capacity);
+                termCounts = Arrays.copyOf(termCounts, capacity);
+            } else {
+                Arrays.fill(names, docCount, productIds.length, null);
+                Arrays.fill(descriptions, docCount, productIds.length, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDeletionVariants(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH || hasDigit(term)) {
+            return;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            if (i > 0 && term.charAt(i) == term.charAt(i - 1)) {
+                continue;
+            }
+            String deletion = term.substring(0, i) + term.substring(i + 1);
+            List<String> terms = termsByDeletion.get(deletion);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    termsByDeletion.remove(deletion);
+                }
+            }
+        }
+    }
+
+    // Số ô tài liệu đang dùng (kể cả ô đã xóa chưa được nén), số term và số biến thể xóa; dùng cho kiểm thử
+    int slotCount() {
+        return docCount;
+    }
+
+    int termCount() {
+        return postingsByTerm.size();
+    }
+
+    int deletionVariantCount() {
+        return termsByDeletion.size();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= productIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, productIds.length * 2);
+        productIds = Arrays.copyOf(productIds, newCapacity);
+        names = Arrays.copyOf(names, newCapacity);
+        prices = Arrays.copyOf(prices, newCapacity);
+        descriptions = Arrays.copyOf(descriptions, newCapacity);
+        docLengths = Arrays.copyOf(docLengths, newCapacity);
+        termCounts = Arrays.copyOf(termCounts, newCapacity);
+    }
+
+    // Chữ thường, bỏ dấu tiếng Việt, tách theo ký tự không phải chữ hoặc số
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT).replace('đ', 'd'), Normalizer.Form.NFD);
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    // Khoảng cách Damerau-Levenshtein không quá 1
+    static boolean withinOneEdit(String a, String b) {
+        int lengthA = a.length();
+        int lengthB = b.length();
+        if (Math.abs(lengthA - lengthB) > 1) {
+            return false;
+        }
+        if (lengthA == lengthB) {
+            int first = -1;
+            int differences = 0;
+            for (int i = 0; i < lengthA; i++) {
+                if (a.charAt(i) != b.charAt(i)) {
+                    if (differences == 0) {
+                        first = i;
+                    }
+                    if (++differences > 2) {
+                        return false;
+                    }
+                }
+            }
+            if (differences <= 1) {
+                return true;
+            }
+            return first + 1 < lengthA
+                    && a.charAt(first) == b.charAt(first + 1)
+                    && a.charAt(first + 1) == b.charAt(first);
+        }
+        String shorter = lengthA < lengthB ? a : b;
+        String longer = lengthA < lengthB ? b : a;
+        int i = 0;
+        int j = 0;
+        boolean skipped = false;
+        while (i < shorter.length() && j < longer.length()) {
+            if (shorter.charAt(i) == longer.charAt(j)) {
+                i++;
+                j++;
+            } else {
+                if (skipped) {
+                    return false;
+                }
+                skipped = true;
+                j++;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasDigit(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.isDigit(token.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[2];
+        // (tần suất trong tên << 16) | tần suất trong mô tả
+        private int[] frequencies = new int[2];
+        private int size;
+
+        // Thu nhỏ mảng khi phần lớn posting đã bị bỏ
+        void trim(int newSize) {
+            size = newSize;
+            if (docs.length > 2 * Math.max(2, newSize)) {
+                docs = Arrays.copyOf(docs, Math.max(2, newSize));
+                frequencies = Arrays.copyOf(frequencies, Math.max(2, newSize));
+            }
+        }
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    private static final class Expansion {
+        private final Postings postings;
+        private final float weight;
+
+        Expansion(Postings postings, float weight) {
+            this.postings = postings;
+            this.weight = weight;
+        }
+    }
+
+    // Mảng tích lũy điểm dùng lại giữa các truy vấn trên cùng một thread, chỉ xóa các ô đã chạm tới
+    private static final class QueryState {
+        private float[] scores = new float[0];
+        private int[] masks = new int[0];
+        private int[] touched = new int[MIN_CAPACITY];
+        private int touchedCount;
+
+        // Gọi khi chưa có ô nào được chạm; mảng cũng được thu nhỏ lại sau khi chỉ mục được nén
+        void ensureCapacity(int docCount) {
+            if (scores.length < docCount) {
+                int capacity = Math.max(docCount, scores.length * 2);
+                scores = Arrays.copyOf(scores, capacity);
+                masks = Arrays.copyOf(masks, capacity);
+            } else if (scores.length > MIN_CAPACITY && scores.length > 2 * docCount) {
+                scores = new float[Math.max(MIN_CAPACITY, docCount)];
+                masks = new int[scores.length];
+            }
+            if (touched.length > MIN_CAPACITY && touched.length > 2 * docCount) {
+                touched = new int[Math.max(MIN_CAPACITY, docCount)];
+            }
+        }
+
+        void touch(int doc) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = doc;
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0f;
+                masks[touched[i]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+}
@@ -1,5 +1,13 @@
 package com.example.productservice.service;
 
+import com.example.productservice.dto.CatalogSnapshot;
+import com.example.productservice.dto.ProductAvailabilityRequest;
+import com.example.productservice.dto.ProductAvailabilityResponse;
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.dto.ProductPage;
+import com.example.productservice.dto.ProductSearchResult;
+import com.example.productservice.dto.StockReservationRequest;
+import com.example.productservice.dto.StockReservationResponse;
 import com.example.productservice.entity.Product;
 
 import java.util.List;
@@ -12,12 +20,30 @@ public interface ProductService {
     // Lấy danh sách tất cả sản phẩm
     List<Product> findAll();
 
+    // Lấy danh sách tất cả sản phẩm dưới dạng JSON dựng sẵn (kèm gzip và ETag)
+    CatalogSnapshot getCatalogSnapshot();
+
+    // Lấy một trang sản phẩm có id lớn hơn afterId, có thể lọc theo tiền tố tên
+    ProductPage findPage(Long afterId, String afterName, int size, String namePrefix);
+
+    // Tìm kiếm toàn văn theo tên và mô tả (có hỗ trợ tiền tố và gõ sai một ký tự)
+    List<ProductSearchResult> searchProducts(String query, int limit);
+
     // Kiểm tra số lượng tồn kho
     int getProductStock(Long productId);
 
     // Kiểm tra xem sản phẩm có đủ số lượng hay không
     boolean checkProductAvailability(Long productId, int quantity);
 
+    // Kiểm tra giá và tồn kho cho nhiều sản phẩm trong một lần truy vấn
+    List<ProductAvailabilityResponse> checkProductsAvailability(List<ProductAvailabilityRequest> requests);
+
     // Cập nhật số lượng tồn kho
     void updateProductQuantity(Long productId, int quantity);
+
+    // Giữ tồn kho cho toàn bộ đơn hàng trong một giao dịch (tất cả hoặc không gì cả)
+    StockReservationResponse reserveStock(List<StockReservationRequest> requests);
+
+    // Lấy danh sách sản phẩm thay đổi kể từ số thứ tự "since" (dùng để làm mất hiệu lực cache ở service khác)
+    ProductChanges getChangesSince(long since);
 }
\ No newline at end of file
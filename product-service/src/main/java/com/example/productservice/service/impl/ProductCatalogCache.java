@@ -0,0 +1,137 @@
+package com.example.productservice.service.impl;
+
+import com.example.productservice.dto.CatalogSnapshot;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductChangedEvent;
+import com.example.productservice.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+// Bản chụp danh mục sản phẩm cho GET /api/products.
+// Mỗi sản phẩm được giữ dưới dạng JSON đã tuần tự hóa; khi có thay đổi chỉ các sản phẩm đó được đọc lại từ DB,
+// sau đó mảng JSON, bản gzip và ETag được dựng lại một lần cho tất cả các request.
+@Component
+public class ProductCatalogCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalogCache.class);
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final long minRebuildIntervalMs;
+    private final Set<Long> dirtyIds = ConcurrentHashMap.newKeySet();
+    private final Map<Long, byte[]> serializedProducts = new TreeMap<>();
+    private volatile CatalogSnapshot current;
+    private volatile long builtAt;
+
+    public ProductCatalogCache(ProductRepository productRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${product.catalog.min-rebuild-interval-ms:1000}") long minRebuildIntervalMs) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.minRebuildIntervalMs = minRebuildIntervalMs;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        dirtyIds.addAll(event.getProductIds());
+    }
+
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot snapshot = current;
+        if (snapshot != null && !needsRebuild()) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (current == null) {
+                loadAll();
+            } else if (needsRebuild()) {
+                reloadChanged();
+            }
+            return current;
+        }
+    }
+
+    // Khi tồn kho thay đổi liên tục (flash sale) danh mục được dựng lại tối đa một lần mỗi min-rebuild-interval-ms
+    private boolean needsRebuild() {
+        return !dirtyIds.isEmpty() && System.currentTimeMillis() - builtAt >= minRebuildIntervalMs;
+    }
+
+    private void loadAll() {
+        dirtyIds.clear();
+        List<Product> products = productRepository.findAll();
+        serializedProducts.clear();
+        for (Product product : products) {
+            serializedProducts.put(product.getId(), serialize(product));
+        }
+        rebuild();
+        logger.info("Dựng bản chụp danh mục với {} sản phẩm", serializedProducts.size());
+    }
+
+    private void reloadChanged() {
+        Set<Long> changedIds = new HashSet<>(dirtyIds);
+        dirtyIds.removeAll(changedIds);
+
+        Set<Long> missingIds = new HashSet<>(changedIds);
+        for (Product product : productRepository.findAllById(changedIds)) {
+            serializedProducts.put(product.getId(), serialize(product));
+            missingIds.remove(product.getId());
+        }
+        missingIds.forEach(serializedProducts::remove);
+        rebuild();
+        logger.debug("Cập nhật bản chụp danh mục cho sản phẩm: {}", changedIds);
+    }
+
+    private void rebuild() {
+        int length = 2 + Math.max(0, serializedProducts.size() - 1);
+        for (byte[] bytes : serializedProducts.values()) {
+            length += bytes.length;
+        }
+
+        byte[] json = new byte[length];
+        int position = 0;
+        json[position++] = '[';
+        for (byte[] bytes : serializedProducts.values()) {
+            if (position > 1) {
+                json[position++] = ',';
+            }
+            System.arraycopy(bytes, 0, json, position, bytes.length);
+            position += bytes.length;
+        }
+        json[position] = ']';
+
+        current = new CatalogSnapshot(json, gzip(json), "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        builtAt = System.currentTimeMillis();
+    }
+
+    private byte[] serialize(Product product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (IOException e) {
+            throw new IllegalStateException("Không thể tuần tự hóa sản phẩm " + product.getId(), e);
+        }
+    }
+
+    private byte[] gzip(byte[] json) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Không thể nén danh mục sản phẩm", e);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.productservice.service.impl;
+
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+
+// Nhật ký thay đổi sản phẩm trong bộ nhớ, có giới hạn kích thước.
+// Mỗi sản phẩm thay đổi (sau khi giao dịch commit) nhận một số thứ tự tăng dần.
+@Component
+public class ProductChangeLog {
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final int capacity;
+    private final Deque<long[]> entries = new ArrayDeque<>();
+    private long sequence;
+
+    public ProductChangeLog(@Value("${product.change-log.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (this) {
+            for (Long productId : event.getProductIds()) {
+                entries.addLast(new long[]{++sequence, productId});
+                if (entries.size() > capacity) {
+                    entries.removeFirst();
+                }
+            }
+        }
+    }
+
+    public synchronized ProductChanges changesSince(long since) {
+        ProductChanges changes = new ProductChanges();
+        changes.setEpoch(epoch);
+        changes.setSequence(sequence);
+
+        long oldestRetained = entries.isEmpty() ? sequence + 1 : entries.peekFirst()[0];
+        if (since > sequence || since < oldestRetained - 1) {
+            // Client đến từ epoch khác hoặc đã bỏ lỡ thay đổi bị đẩy ra khỏi nhật ký
+            changes.setReset(since != sequence);
+            changes.setProductIds(Set.of());
+            return changes;
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        Iterator<long[]> iterator = entries.descendingIterator();
+        while (iterator.hasNext()) {
+            long[] entry = iterator.next();
+            if (entry[0] <= since) {
+                break;
+            }
+            productIds.add(entry[1]);
+        }
+        changes.setProductIds(productIds);
+        return changes;
+    }
+}
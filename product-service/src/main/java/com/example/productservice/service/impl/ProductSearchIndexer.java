@@ -0,0 +1,94 @@
+package com.example.productservice.service.impl;
+
+import com.example.productservice.dto.ProductSearchResult;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductChangedEvent;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.search.ProductSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Giữ ProductSearchIndex đồng bộ với bảng products.
+// Lần chạy đầu tiên dựng chỉ mục theo từng trang keyset; sau đó chỉ đọc lại các sản phẩm đã thay đổi.
+// Mọi thao tác ghi chỉ mục chạy trên thread của scheduler nên request tìm kiếm không bao giờ phải truy vấn DB.
+@Component
+public class ProductSearchIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexer.class);
+    private final ProductRepository productRepository;
+    private final int batchSize;
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    private final Set<Long> dirtyIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean built;
+
+    public ProductSearchIndexer(ProductRepository productRepository,
+                                @Value("${product.search.index-batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.batchSize = batchSize;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        dirtyIds.addAll(event.getProductIds());
+    }
+
+    public List<ProductSearchResult> search(String query, int limit) {
+        if (!built) {
+            logger.warn("Chỉ mục tìm kiếm đang được dựng, kết quả có thể chưa đầy đủ");
+        }
+        return index.search(query, limit);
+    }
+
+    @Scheduled(fixedDelayString = "${product.search.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            if (!built) {
+                buildAll();
+                built = true;
+            } else if (!dirtyIds.isEmpty()) {
+                reloadChanged();
+            }
+        } catch (Exception e) {
+            logger.error("Lỗi khi cập nhật chỉ mục tìm kiếm: {}", e.getMessage(), e);
+        }
+    }
+
+    private void buildAll() {
+        long start = System.currentTimeMillis();
+        long after = 0L;
+        List<Product> page;
+        do {
+            page = productRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, batchSize));
+            for (Product product : page) {
+                index.upsert(product.getId(), product.getName(), product.getDescription(), product.getPrice());
+                after = product.getId();
+            }
+        } while (page.size() == batchSize);
+        logger.info("Đã dựng chỉ mục tìm kiếm cho {} sản phẩm trong {} ms",
+                index.size(), System.currentTimeMillis() - start);
+    }
+
+    private void reloadChanged() {
+        Set<Long> ids = new HashSet<>(dirtyIds);
+        dirtyIds.removeAll(ids);
+        Set<Long> missing = new HashSet<>(ids);
+        for (Product product : productRepository.findAllById(ids)) {
+            index.upsert(product.getId(), product.getName(), product.getDescription(), product.getPrice());
+            missing.remove(product.getId());
+        }
+        for (Long id : missing) {
+            index.remove(id);
+        }
+        logger.debug("Đã cập nhật chỉ mục tìm kiếm cho {} sản phẩm", ids.size());
+    }
+}
@@ -1,16 +1,35 @@
 package com.example.productservice.service.impl;
 
+import com.example.productservice.dto.CatalogSnapshot;
+import com.example.productservice.dto.ProductAvailabilityRequest;
+import com.example.productservice.dto.ProductAvailabilityResponse;
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.dto.ProductPage;
+import com.example.productservice.dto.ProductSearchResult;
+import com.example.productservice.dto.StockReservationRequest;
+import com.example.productservice.dto.StockReservationResponse;
 import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductChangedEvent;
 import com.example.productservice.repository.ProductRepository;
 import com.example.productservice.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +37,10 @@ public class ProductServiceImpl implements ProductService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductChangeLog productChangeLog;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchIndexer productSearchIndexer;
 
     @Override
     public Optional<Product> findById(Long id) {
@@ -41,6 +64,63 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    @Override
+    public CatalogSnapshot getCatalogSnapshot() {
+        logger.debug("Lấy bản chụp danh mục sản phẩm");
+        try {
+            return productCatalogCache.getSnapshot();
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy bản chụp danh mục sản phẩm: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể lấy danh sách sản phẩm: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public ProductPage findPage(Long afterId, String afterName, int size, String namePrefix) {
+        logger.debug("Lấy trang sản phẩm sau ID: {}, tên: {}, kích thước: {}, tiền tố tên: {}",
+                afterId, afterName, size, namePrefix);
+        try {
+            long after = afterId != null ? afterId : 0L;
+            boolean byName = namePrefix != null && !namePrefix.isBlank();
+            // Lấy dư một dòng để biết còn trang tiếp theo hay không
+            PageRequest limit = PageRequest.of(0, size + 1);
+            List<Product> products = byName
+                    ? productRepository.findByNamePrefixAfter(escapeLike(namePrefix) + "%",
+                            afterName != null ? afterName : "", after, limit)
+                    : productRepository.findByIdGreaterThanOrderByIdAsc(after, limit);
+
+            ProductPage page = new ProductPage();
+            if (products.size() > size) {
+                products = products.subList(0, size);
+                Product last = products.get(size - 1);
+                page.setNextCursor(last.getId());
+                if (byName) {
+                    page.setNextName(last.getName());
+                }
+            }
+            page.setItems(products);
+            return page;
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy trang sản phẩm: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể lấy trang sản phẩm: " + e.getMessage());
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    @Override
+    public List<ProductSearchResult> searchProducts(String query, int limit) {
+        logger.debug("Tìm kiếm sản phẩm với từ khóa: {}, giới hạn: {}", query, limit);
+        try {
+            return productSearchIndexer.search(query, limit);
+        } catch (Exception e) {
+            logger.error("Lỗi khi tìm kiếm sản phẩm: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể tìm kiếm sản phẩm: " + e.getMessage());
+        }
+    }
+
     @Override
     public int getProductStock(Long productId) {
         logger.debug("Kiểm tra số lượng tồn kho cho sản phẩm ID: {}", productId);
@@ -74,23 +154,70 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    @Override
+    public List<ProductAvailabilityResponse> checkProductsAvailability(List<ProductAvailabilityRequest> requests) {
+        logger.debug("Kiểm tra tồn kho theo lô cho {} dòng", requests == null ? 0 : requests.size());
+        if (requests == null || requests.isEmpty()) {
+            return List.of();
+        }
+        try {
+            // Gộp số lượng theo sản phẩm để một sản phẩm xuất hiện nhiều dòng vẫn được kiểm tra đúng
+            Map<Long, Integer> requiredQuantities = new HashMap<>();
+            for (ProductAvailabilityRequest request : requests) {
+                if (request.getProductId() != null) {
+                    requiredQuantities.merge(request.getProductId(), request.getQuantity(), Integer::sum);
+                }
+            }
+
+            // Chỉ một truy vấn cho toàn bộ danh sách
+            Map<Long, Product> products = productRepository.findAllById(requiredQuantities.keySet()).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+            List<ProductAvailabilityResponse> responses = new ArrayList<>(requests.size());
+            for (ProductAvailabilityRequest request : requests) {
+                ProductAvailabilityResponse response = new ProductAvailabilityResponse();
+                response.setProductId(request.getProductId());
+                response.setRequestedQuantity(request.getQuantity());
+
+                Product product = request.getProductId() != null ? products.get(request.getProductId()) : null;
+                if (product != null) {
+                    response.setFound(true);
+                    response.setName(product.getName());
+                    response.setPrice(product.getPrice());
+                    int required = requiredQuantities.get(product.getId());
+                    response.setAvailable(request.getQuantity() > 0 && product.getQuantity() >= required);
+                    if (!response.isAvailable()) {
+                        logger.warn("Sản phẩm ID: {} không đủ số lượng (yêu cầu: {}, tồn kho: {})",
+                                product.getId(), required, product.getQuantity());
+                    }
+                } else {
+                    logger.warn("Không tìm thấy sản phẩm với ID: {}", request.getProductId());
+                }
+                responses.add(response);
+            }
+            return responses;
+        } catch (Exception e) {
+            logger.error("Lỗi khi kiểm tra tồn kho theo lô: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể kiểm tra tồn kho theo lô: " + e.getMessage());
+        }
+    }
+
     @Override
     @Transactional
     public void updateProductQuantity(Long productId, int quantity) {
         logger.debug("Cập nhật số lượng tồn kho cho sản phẩm ID: {} với số lượng: {}", productId, quantity);
         try {
+            if (productRepository.decrementStock(productId, quantity) == 1) {
+                eventPublisher.publishEvent(new ProductChangedEvent(Set.of(productId)));
+                logger.info("Cập nhật số lượng tồn kho thành công cho sản phẩm ID: {}", productId);
+                return;
+            }
+
             Optional<Product> productOptional = productRepository.findById(productId);
             if (productOptional.isPresent()) {
-                Product product = productOptional.get();
-                int newQuantity = product.getQuantity() - quantity;
-                if (newQuantity >= 0) {
-                    product.setQuantity(newQuantity);
-                    productRepository.save(product);
-                    logger.info("Cập nhật số lượng tồn kho thành công cho sản phẩm ID: {}", productId);
-                } else {
-                    logger.error("Số lượng sản phẩm không đủ trong kho: yêu cầu {}, tồn kho {}", quantity, product.getQuantity());
-                    throw new IllegalArgumentException("Số lượng sản phẩm không đủ trong kho");
-                }
+                logger.error("Số lượng sản phẩm không đủ trong kho: yêu cầu {}, tồn kho {}",
+                        quantity, productOptional.get().getQuantity());
+                throw new IllegalArgumentException("Số lượng sản phẩm không đủ trong kho");
             } else {
                 logger.error("Không tìm thấy sản phẩm với ID: {}", productId);
                 throw new IllegalArgumentException("Không tìm thấy sản phẩm với ID: " + productId);
@@ -102,4 +229,80 @@ public class ProductServiceImpl implements ProductService {
             throw new RuntimeException("Không thể cập nhật số lượng tồn kho: " + e.getMessage());
         }
     }
+
+    @Override
+    @Transactional
+    public StockReservationResponse reserveStock(List<StockReservationRequest> requests) {
+        logger.debug("Giữ tồn kho cho {} dòng", requests == null ? 0 : requests.size());
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Danh sách sản phẩm cần giữ tồn kho không được rỗng");
+        }
+        try {
+            // Gộp theo sản phẩm và trừ theo thứ tự ID tăng dần để các giao dịch đồng thời khóa dòng cùng thứ tự
+            Map<Long, Integer> quantities = new TreeMap<>();
+            boolean invalid = false;
+            for (StockReservationRequest request : requests) {
+                if (request.getProductId() == null || request.getQuantity() <= 0) {
+                    invalid = true;
+                } else {
+                    quantities.merge(request.getProductId(), request.getQuantity(), Integer::sum);
+                }
+            }
+
+            Map<Long, StockReservationResponse.Status> statuses = new HashMap<>();
+            List<Long> failedIds = new ArrayList<>();
+            if (!invalid) {
+                for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                    if (productRepository.decrementStock(entry.getKey(), entry.getValue()) == 1) {
+                        statuses.put(entry.getKey(), StockReservationResponse.Status.RESERVED);
+                    } else {
+                        failedIds.add(entry.getKey());
+                    }
+                }
+            }
+
+            boolean success = !invalid && failedIds.isEmpty();
+            if (!success) {
+                // Hoàn tác toàn bộ các dòng đã trừ trong giao dịch này
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                statuses.replaceAll((id, status) -> StockReservationResponse.Status.ROLLED_BACK);
+                Set<Long> existingIds = productRepository.findAllById(failedIds).stream()
+                        .map(Product::getId)
+                        .collect(Collectors.toSet());
+                for (Long failedId : failedIds) {
+                    statuses.put(failedId, existingIds.contains(failedId)
+                            ? StockReservationResponse.Status.INSUFFICIENT_STOCK
+                            : StockReservationResponse.Status.NOT_FOUND);
+                }
+                logger.warn("Không thể giữ tồn kho, sản phẩm lỗi: {}", failedIds);
+            } else {
+                eventPublisher.publishEvent(new ProductChangedEvent(quantities.keySet()));
+                logger.info("Giữ tồn kho thành công cho sản phẩm: {}", quantities.keySet());
+            }
+
+            StockReservationResponse response = new StockReservationResponse();
+            response.setSuccess(success);
+            for (StockReservationRequest request : requests) {
+                StockReservationResponse.Line line = new StockReservationResponse.Line();
+                line.setProductId(request.getProductId());
+                line.setQuantity(request.getQuantity());
+                if (request.getProductId() == null || request.getQuantity() <= 0) {
+                    line.setStatus(StockReservationResponse.Status.INVALID_QUANTITY);
+                } else {
+                    line.setStatus(statuses.getOrDefault(request.getProductId(),
+                            StockReservationResponse.Status.ROLLED_BACK));
+                }
+                response.getLines().add(line);
+            }
+            return response;
+        } catch (Exception e) {
+            logger.error("Lỗi khi giữ tồn kho: {}", e.getMessage(), e);
+            throw new RuntimeException("Không thể giữ tồn kho: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public ProductChanges getChangesSince(long since) {
+        return productChangeLog.changesSince(since);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.example.productservice.search;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Đo thời gian dựng chỉ mục và độ trễ truy vấn trên danh mục giả lập.
+// Chạy thủ công: java ... ProductSearchIndexBenchmark [số sản phẩm], mặc định 1.000.000.
+public class ProductSearchIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "áo", "sơ", "mi", "quần", "jean", "váy", "giày", "dép", "túi", "balo", "đồng", "hồ", "kính", "mũ",
+            "wireless", "keyboard", "mouse", "laptop", "monitor", "charger", "cable", "speaker", "headphone",
+            "cotton", "leather", "silicone", "compact", "ergonomic", "premium", "classic", "sport", "travel",
+            "trắng", "đen", "xanh", "đỏ", "vàng", "nam", "nữ", "trẻ", "em", "cao", "cấp", "chống", "nước"
+    };
+    private static final String[] QUERIES = {
+            "keyboard", "áo sơ mi", "wireless mouse", "giày sp", "leathr", "premium travel balo", "head", "chong nuoc"
+    };
+
+    public static void main(String[] args) {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        ProductSearchIndex index = new ProductSearchIndex();
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= products; i++) {
+            index.upsert(i, sentence(random, 3 + random.nextInt(4)), sentence(random, 10 + random.nextInt(20)),
+                    random.nextInt(1_000_000));
+        }
+        System.out.printf("Dựng chỉ mục %d sản phẩm: %d ms%n", products, (System.nanoTime() - start) / 1_000_000);
+
+        for (int i = 0; i < 200; i++) {
+            index.search(QUERIES[i % QUERIES.length], 20);
+        }
+        for (String query : QUERIES) {
+            long[] samples = new long[200];
+            for (int i = 0; i < samples.length; i++) {
+                long t = System.nanoTime();
+                index.search(query, 20);
+                samples[i] = System.nanoTime() - t;
+            }
+            Arrays.sort(samples);
+            System.out.printf("%-22s p50=%6.2f ms  p99=%6.2f ms%n", query,
+                    samples[samples.length / 2] / 1e6, samples[samples.length * 99 / 100] / 1e6);
+        }
+
+        start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            long id = 1 + random.nextInt(products);
+            index.upsert(id, sentence(random, 4), sentence(random, 15), random.nextInt(1_000_000));
+        }
+        System.out.printf("10.000 cập nhật tăng dần: %d ms%n", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.productservice.search;
+
+import com.example.productservice.dto.ProductSearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.upsert(1L, "Áo sơ mi nam", "Áo sơ mi cotton màu trắng", 250000);
+        index.upsert(2L, "Quần jean nữ", "Quần jean co giãn, phù hợp với áo sơ mi", 400000);
+        index.upsert(3L, "Wireless keyboard", "Compact keyboard with backlight", 59.9);
+        index.upsert(4L, "Keyboard cover", "Silicone cover for laptop", 9.9);
+        index.upsert(5L, "Đèn bàn LED", "Đèn học chống cận", 150000);
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        List<Long> ids = ids(index.search("áo sơ mi", 10));
+
+        assertEquals(List.of(1L, 2L), ids);
+    }
+
+    @Test
+    void ignoresVietnameseDiacritics() {
+        assertEquals(List.of(5L), ids(index.search("den ban", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.search("AO SO MI", 10)));
+    }
+
+    @Test
+    void requiresEveryTermToMatch() {
+        assertEquals(List.of(3L), ids(index.search("keyboard wireless", 10)));
+        assertTrue(index.search("keyboard jean", 10).isEmpty());
+    }
+
+    @Test
+    void matchesLastTermAsPrefix() {
+        assertEquals(List.of(3L, 4L), ids(index.search("keyb", 10)));
+        assertEquals(List.of(4L), ids(index.search("keyboard cov", 10)));
+    }
+
+    @Test
+    void toleratesSingleTypo() {
+        assertEquals(List.of(3L), ids(index.search("wireles", 10)));
+        assertEquals(List.of(3L), ids(index.search("wirelesss", 10)));
+        assertEquals(List.of(3L), ids(index.search("wirelass", 10)));
+        assertEquals(List.of(3L), ids(index.search("wirelses", 10)));
+        assertTrue(index.search("wxrelxss", 10).isEmpty());
+    }
+
+    @Test
+    void appliesUpdatesAndRemovals() {
+        index.upsert(3L, "Wireless mouse", "Ergonomic mouse", 29.9);
+        index.remove(4L);
+
+        assertTrue(index.search("keyboard", 10).isEmpty());
+        assertEquals(List.of(3L), ids(index.search("mouse", 10)));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void updatesPriceInPlaceWhenTextIsUnchanged() {
+        index.upsert(3L, "Wireless keyboard", "Compact keyboard with backlight", 49.9);
+
+        ProductSearchResult result = index.search("wireless", 1).get(0);
+        assertEquals(49.9, result.getPrice());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void reindexesChangedDescriptionEvenWhenHashCollides() {
+        // "Aa" và "BB" có cùng String.hashCode()
+        index.upsert(3L, "Wireless keyboard", "Aa", 59.9);
+        index.upsert(3L, "Wireless keyboard", "BB", 59.9);
+
+        assertEquals(List.of(3L), ids(index.search("bb", 10)));
+        assertTrue(index.search("aa", 10).isEmpty());
+    }
+
+    @Test
+    void reclaimsSlotsAndTermsAfterChurn() {
+        for (int round = 0; round < 5000; round++) {
+            index.upsert(3L, "Wireless keyboard " + word(round), "Compact keyboard with backlight", 59.9);
+        }
+        String latest = word(4999);
+
+        // Ô tài liệu đã xóa được thu hồi dần, không tăng theo mỗi lần đổi tên
+        assertTrue(index.slotCount() <= 5 + 1100, "slots: " + index.slotCount());
+        assertEquals(List.of(3L), ids(index.search(latest, 10)));
+        assertTrue(index.search(word(0), 10).isEmpty());
+
+        index.compact();
+
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        fresh.upsert(1L, "Áo sơ mi nam", "Áo sơ mi cotton màu trắng", 250000);
+        fresh.upsert(2L, "Quần jean nữ", "Quần jean co giãn, phù hợp với áo sơ mi", 400000);
+        fresh.upsert(3L, "Wireless keyboard " + latest, "Compact keyboard with backlight", 59.9);
+        fresh.upsert(4L, "Keyboard cover", "Silicone cover for laptop", 9.9);
+        fresh.upsert(5L, "Đèn bàn LED", "Đèn học chống cận", 150000);
+        assertEquals(5, index.slotCount());
+        assertEquals(fresh.termCount(), index.termCount());
+        assertEquals(fresh.deletionVariantCount(), index.deletionVariantCount());
+        assertEquals(ids(fresh.search("keyboard", 10)), ids(index.search("keyboard", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.search("áo sơ mi", 10)));
+    }
+
+    @Test
+    void respectsLimit() {
+        assertEquals(List.of(3L), ids(index.search("keyboard", 1)));
+    }
+
+    @Test
+    void checksEditDistance() {
+        assertTrue(ProductSearchIndex.withinOneEdit("shirt", "shirt"));
+        assertTrue(ProductSearchIndex.withinOneEdit("shirt", "shrt"));
+        assertTrue(ProductSearchIndex.withinOneEdit("shirt", "shurt"));
+        assertTrue(ProductSearchIndex.withinOneEdit("shirt", "hsirt"));
+        assertTrue(!ProductSearchIndex.withinOneEdit("shirt", "hsrit"));
+        assertTrue(!ProductSearchIndex.withinOneEdit("shirt", "sh"));
+    }
+
+    // Chỉ gồm chữ cái để mỗi từ đều có biến thể xóa một ký tự cho tìm kiếm gần đúng
+    private static String word(int n) {
+        StringBuilder word = new StringBuilder("zz");
+        do {
+            word.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return word.toString();
+    }
+
+    private static List<Long> ids(List<ProductSearchResult> results) {
+        return results.stream().map(ProductSearchResult::getId).collect(Collectors.toList());
+    }
+}
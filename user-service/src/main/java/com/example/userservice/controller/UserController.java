@@ -1,5 +1,6 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.UserProfile;
 import com.example.userservice.entity.User;
 import com.example.userservice.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +29,14 @@ public class UserController {
         return ResponseEntity.ok(hasPermission);
     }
 
+    // Hồ sơ rút gọn (active, role, email, permitted) để order-service kiểm tra quyền và lấy email trong một request
+    @GetMapping("/{username}/profile")
+    public ResponseEntity<UserProfile> getUserProfile(@PathVariable String username) {
+        return userService.getUserProfile(username)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/{username}/info")
     public ResponseEntity<Void> saveUserInfo(
             @PathVariable String username,
@@ -0,0 +1,30 @@
+package com.example.userservice.dto;
+
+import com.example.userservice.entity.User;
+import lombok.Getter;
+
+// Các thông tin của người dùng cần cho việc kiểm tra quyền đặt hàng, được giữ trong cache.
+// Bất biến vì cùng một đối tượng được trả cho mọi request đọc cache
+@Getter
+public class UserProfile {
+    private final String username;
+    private final String role;
+    private final boolean active;
+    private final String email;
+
+    public UserProfile(String username, String role, boolean active, String email) {
+        this.username = username;
+        this.role = role;
+        this.active = active;
+        this.email = email;
+    }
+
+    // Chỉ khách hàng đang hoạt động mới được đặt hàng
+    public boolean isPermitted() {
+        return active && "CUSTOMER".equals(role);
+    }
+
+    public static UserProfile from(User user) {
+        return new UserProfile(user.getUsername(), user.getRole(), user.isActive(), user.getEmail());
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserProfile;
+
+import java.util.Optional;
+
+public interface UserProfileCache {
+    // Lấy role, trạng thái và email của người dùng, ưu tiên bản trong cache; Optional.empty() khi không tồn tại
+    Optional<UserProfile> getProfile(String username);
+
+    // Xóa mục của người dùng khỏi cache sau khi thông tin của họ thay đổi
+    void evict(String username);
+}
@@ -1,5 +1,6 @@
 package com.example.userservice.service;
 
+import com.example.userservice.dto.UserProfile;
 import com.example.userservice.entity.User;
 
 import java.util.Optional;
@@ -11,6 +12,13 @@ public interface UserService {
     // Kiểm tra quyền hạn của người dùng
     boolean checkUserPermission(String username);
 
+    // Lấy role, trạng thái, email và quyền đặt hàng của người dùng trong một lần (đọc từ cache)
+    Optional<UserProfile> getUserProfile(String username);
+
     // Lưu hoặc cập nhật thông tin khách hàng
     void saveUserInfo(String username, String name, String address, String email, String phone);
+
+    // Đổi role/trạng thái của người dùng và xóa mục trong cache, trả về false khi người dùng không tồn tại.
+    // Không có endpoint công khai; chỉ dùng nội bộ cho công cụ quản trị chạy cùng service
+    boolean updateUserAccess(String username, String role, boolean active);
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.example.userservice.service.impl;
+
+import com.example.userservice.dto.UserProfile;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserProfileCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Cache đọc xuyên cho hồ sơ người dùng. Người dùng không tồn tại cũng được cache (negative caching) nhưng với TTL ngắn hơn,
+// để một người dùng mới đăng ký không phải chờ lâu. Mục bị xóa ngay khi saveUserInfo hoặc updateUserAccess đổi thông tin
+// trên instance này; TTL giới hạn thời gian dữ liệu cũ trên các instance khác hoặc khi database bị sửa trực tiếp.
+@Service
+public class UserProfileCacheImpl implements UserProfileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProfileCacheImpl.class);
+    private final UserRepository userRepository;
+    private final Cache<String, Optional<UserProfile>> cache;
+
+    @Autowired
+    public UserProfileCacheImpl(UserRepository userRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${user.cache.max-size:100000}") long maxSize,
+                                @Value("${user.cache.ttl-seconds:60}") long ttlSeconds,
+                                @Value("${user.cache.negative-ttl-seconds:10}") long negativeTtlSeconds) {
+        this(userRepository, meterRegistry, maxSize, ttlSeconds, negativeTtlSeconds, Ticker.systemTicker());
+    }
+
+    // Cho phép kiểm thử truyền đồng hồ giả để kiểm tra thời hạn của mục trong cache
+    UserProfileCacheImpl(UserRepository userRepository, MeterRegistry meterRegistry, long maxSize,
+                         long ttlSeconds, long negativeTtlSeconds, Ticker ticker) {
+        this.userRepository = userRepository;
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<UserProfile>>() {
+                    @Override
+                    public long expireAfterCreate(String username, Optional<UserProfile> profile, long currentTime) {
+                        return profile.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String username, Optional<UserProfile> profile,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(username, profile, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String username, Optional<UserProfile> profile,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    @Override
+    public Optional<UserProfile> getProfile(String username) {
+        return cache.get(username, this::loadProfile);
+    }
+
+    @Override
+    public void evict(String username) {
+        cache.invalidate(username);
+        logger.debug("Xóa cache của người dùng: {}", username);
+    }
+
+    private Optional<UserProfile> loadProfile(String username) {
+        logger.debug("Đọc hồ sơ người dùng từ database: {}", username);
+        return userRepository.findByUsername(username).map(UserProfile::from);
+    }
+}
@@ -1,13 +1,16 @@
 package com.example.userservice.service.impl;
 
+import com.example.userservice.dto.UserProfile;
 import com.example.userservice.entity.User;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserProfileCache;
 import com.example.userservice.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -16,6 +19,7 @@ public class UserServiceImpl implements UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
     private final UserRepository userRepository;
+    private final UserProfileCache userProfileCache;
 
     @Override
     public Optional<User> findByUsername(String username) {
@@ -32,10 +36,9 @@ public class UserServiceImpl implements UserService {
     public boolean checkUserPermission(String username) {
         logger.debug("Kiểm tra quyền hạn cho người dùng: {}", username);
         try {
-            Optional<User> user = userRepository.findByUsername(username);
-            boolean hasPermission = user.isPresent() &&
-                    user.get().getRole().equals("CUSTOMER") &&
-                    user.get().isActive();
+            boolean hasPermission = userProfileCache.getProfile(username)
+                    .map(UserProfile::isPermitted)
+                    .orElse(false);
             if (!hasPermission) {
                 logger.warn("Người dùng {} không có quyền đặt hàng hoặc không tồn tại", username);
             }
@@ -46,6 +49,17 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @Override
+    public Optional<UserProfile> getUserProfile(String username) {
+        logger.debug("Lấy hồ sơ người dùng: {}", username);
+        try {
+            return userProfileCache.getProfile(username);
+        } catch (Exception e) {
+            logger.error("Lỗi khi lấy hồ sơ người dùng {}: {}", username, e.getMessage(), e);
+            throw new RuntimeException("Không thể lấy hồ sơ người dùng: " + e.getMessage());
+        }
+    }
+
     @Override
     public void saveUserInfo(String username, String name, String address, String email, String phone) {
         logger.debug("Lưu thông tin khách hàng cho username: {}", username);
@@ -54,6 +68,12 @@ public class UserServiceImpl implements UserService {
             User user;
             if (userOptional.isPresent()) {
                 user = userOptional.get();
+                // Mỗi đơn hàng đều gửi lại thông tin khách hàng; chỉ ghi khi có trường thực sự thay đổi
+                if (Objects.equals(user.getName(), name) && Objects.equals(user.getAddress(), address)
+                        && Objects.equals(user.getEmail(), email) && Objects.equals(user.getPhone(), phone)) {
+                    logger.debug("Thông tin khách hàng {} không thay đổi, bỏ qua cập nhật", username);
+                    return;
+                }
             } else {
                 logger.warn("Không tìm thấy người dùng {}, tạo người dùng mới", username);
                 user = new User();
@@ -69,10 +89,40 @@ public class UserServiceImpl implements UserService {
             user.setPhone(phone);
 
             userRepository.save(user);
+            userProfileCache.evict(username);
             logger.info("Lưu thông tin khách hàng thành công cho username: {}", username);
         } catch (Exception e) {
             logger.error("Lỗi khi lưu thông tin khách hàng {}: {}", username, e.getMessage(), e);
             throw new RuntimeException("Không thể lưu thông tin khách hàng: " + e.getMessage());
         }
     }
+
+    @Override
+    public boolean updateUserAccess(String username, String role, boolean active) {
+        logger.debug("Cập nhật quyền hạn cho người dùng: {}", username);
+        try {
+            if (role == null || role.isBlank()) {
+                logger.warn("Role không hợp lệ cho người dùng: {}", username);
+                throw new IllegalArgumentException("Role không được để trống");
+            }
+            Optional<User> userOptional = userRepository.findByUsername(username);
+            if (userOptional.isEmpty()) {
+                logger.warn("Không tìm thấy người dùng: {}", username);
+                return false;
+            }
+
+            User user = userOptional.get();
+            user.setRole(role);
+            user.setActive(active);
+            userRepository.save(user);
+            userProfileCache.evict(username);
+            logger.info("Cập nhật quyền hạn thành công cho người dùng {}: role={}, active={}", username, role, active);
+            return true;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Lỗi khi cập nhật quyền hạn {}: {}", username, e.getMessage(), e);
+            throw new RuntimeException("Không thể cập nhật quyền hạn: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.example.userservice.service.impl;
+
+import com.example.userservice.dto.UserProfile;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserProfileCacheImplTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private UserRepository userRepository;
+    private UserProfileCacheImpl cache;
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // TTL 60 giây cho người dùng tồn tại, 10 giây cho người dùng không tồn tại
+        cache = new UserProfileCacheImpl(userRepository, new SimpleMeterRegistry(), 1000, 60, 10, nanos::get);
+        userService = new UserServiceImpl(userRepository, cache);
+    }
+
+    @Test
+    void readsDatabaseOnceWhileEntryIsFresh() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user("testuser", "CUSTOMER", true)));
+
+        assertTrue(userService.checkUserPermission("testuser"));
+        assertTrue(userService.checkUserPermission("testuser"));
+        advance(59);
+        assertEquals("testuser@example.com", cache.getProfile("testuser").map(UserProfile::getEmail).orElse(null));
+
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void expiresUnknownUserAfterNegativeTtl() {
+        when(userRepository.findByUsername("newuser")).thenReturn(Optional.empty());
+
+        assertFalse(userService.checkUserPermission("newuser"));
+        advance(9);
+        assertFalse(userService.checkUserPermission("newuser"));
+        verify(userRepository, times(1)).findByUsername("newuser");
+
+        // Người dùng vừa đăng ký được thấy sau khi hết TTL âm, không phải chờ TTL đầy đủ
+        when(userRepository.findByUsername("newuser")).thenReturn(Optional.of(user("newuser", "CUSTOMER", true)));
+        advance(2);
+        assertTrue(userService.checkUserPermission("newuser"));
+        verify(userRepository, times(2)).findByUsername("newuser");
+    }
+
+    @Test
+    void expiresKnownUserAfterTtl() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user("testuser", "CUSTOMER", true)));
+
+        cache.getProfile("testuser");
+        advance(61);
+        cache.getProfile("testuser");
+
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void evictsAfterSaveUserInfo() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user("testuser", "CUSTOMER", true)));
+        assertEquals("testuser@example.com", cache.getProfile("testuser").get().getEmail());
+
+        userService.saveUserInfo("testuser", "Test", "Hà Nội", "new@example.com", "0900000000");
+
+        assertEquals("new@example.com", cache.getProfile("testuser").get().getEmail());
+    }
+
+    @Test
+    void evictsAfterAccessChange() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user("testuser", "CUSTOMER", true)));
+        assertTrue(userService.checkUserPermission("testuser"));
+
+        assertTrue(userService.updateUserAccess("testuser", "CUSTOMER", false));
+        assertFalse(userService.checkUserPermission("testuser"));
+
+        assertTrue(userService.updateUserAccess("testuser", "ADMIN", true));
+        assertFalse(userService.checkUserPermission("testuser"));
+        assertEquals("ADMIN", cache.getProfile("testuser").get().getRole());
+    }
+
+    private void advance(long seconds) {
+        nanos.addAndGet(Duration.ofSeconds(seconds).toNanos());
+    }
+
+    private static User user(String username, String role, boolean active) {
+        User user = new User();
+        user.setUsername(username);
+        user.setRole(role);
+        user.setActive(active);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+}